@@ -0,0 +1,88 @@
+import java.util.ListIterator;
+import java.util.Random;
+
+/**
+ * Measures the time to walk a long lived {@code DLList} whose elements have
+ * been scattered in memory by insertions and removals in the middle, before
+ * and after {@code defragment()}. Run with
+ * {@code java DefragmentBenchmark [size] [rounds]}.
+ *
+ * @author David Brown
+ */
+public class DefragmentBenchmark {
+
+	/**
+	 * Somewhere to put values so the walks are not optimised away.
+	 */
+	private static long sink;
+
+	/**
+	 * Walk the list a number of times.
+	 *
+	 * @param l
+	 *            The list.
+	 * @param rounds
+	 *            Number of walks.
+	 * @return Nanoseconds per element visited.
+	 */
+	private static double walk(DLList<Integer> l, int rounds) {
+		long start = System.nanoTime();
+		for (int r = 0; r < rounds; r++) {
+			for (Integer i : l) {
+				sink += i;
+			}
+		}
+		return (System.nanoTime() - start) / ((double) rounds * l.size());
+	}
+
+	/**
+	 * Replace about half of the elements at random positions, allocating
+	 * other garbage in between so that the new elements are spread out.
+	 *
+	 * @param l
+	 *            The list.
+	 * @param rnd
+	 *            Source of positions.
+	 */
+	private static void churn(DLList<Integer> l, Random rnd) {
+		Object[] garbage = new Object[1024];
+		ListIterator<Integer> it = l.listIterator();
+		while (it.hasNext()) {
+			Integer i = it.next();
+			if (rnd.nextBoolean()) {
+				it.remove();
+				garbage[rnd.nextInt(garbage.length)] = new long[rnd.nextInt(16)];
+				it.add(i);
+			}
+		}
+		sink += garbage.length;
+	}
+
+	/**
+	 * @param args
+	 *            Optional size of the list and number of walks to time.
+	 */
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		Random rnd = new Random(42);
+		DLList<Integer> l = new DLList<>();
+		for (int i = 0; i < size; i++) {
+			l.add(i);
+		}
+		walk(l, rounds);
+		System.out.printf("Fresh:     %.2f ns/element%n", walk(l, rounds));
+		for (int i = 0; i < 4; i++) {
+			churn(l, rnd);
+		}
+		System.gc();
+		walk(l, rounds);
+		System.out.printf("Churned:   %.2f ns/element%n", walk(l, rounds));
+		long start = System.nanoTime();
+		l.defragment();
+		System.out.printf("Defragmented in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+		System.gc();
+		walk(l, rounds);
+		System.out.printf("Defragmented: %.2f ns/element%n", walk(l, rounds));
+	}
+}
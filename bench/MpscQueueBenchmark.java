@@ -0,0 +1,122 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the throughput of {@code MpscQueue} with one consumer and an
+ * increasing number of producers, alongside a {@code DLList} guarded by a
+ * monitor as used before. Run with
+ * {@code java MpscQueueBenchmark [maxProducers] [millis]}.
+ *
+ * @author David Brown
+ */
+public class MpscQueueBenchmark {
+
+	/**
+	 * Maximum number of elements taken by the consumer at once.
+	 */
+	private static final int BATCH = 256;
+
+	/**
+	 * A queue being measured.
+	 */
+	private interface Target {
+
+		/**
+		 * @param e
+		 *            Element to add, from a producer thread.
+		 */
+		void offer(Integer e);
+
+		/**
+		 * @return Number of elements taken, from the consumer thread.
+		 */
+		int drain();
+	}
+
+	/**
+	 * Run producers and one consumer against the queue for the given time.
+	 *
+	 * @param t
+	 *            The queue.
+	 * @param producers
+	 *            Number of producer threads.
+	 * @param millis
+	 *            How long to run for.
+	 * @return Elements consumed per second.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the threads.
+	 */
+	private static double measure(Target t, int producers, long millis) throws InterruptedException {
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread[] threads = new Thread[producers];
+		Integer e = 1;
+		for (int p = 0; p < producers; p++) {
+			threads[p] = new Thread(() -> {
+				while (running.get()) {
+					for (int i = 0; i < 64; i++) {
+						t.offer(e);
+					}
+				}
+			});
+			threads[p].start();
+		}
+		long consumed = 0;
+		long end = System.nanoTime() + millis * 1000000;
+		long start = System.nanoTime();
+		while (System.nanoTime() < end) {
+			consumed += t.drain();
+		}
+		double rate = consumed * 1e9 / (System.nanoTime() - start);
+		running.set(false);
+		for (Thread th : threads) {
+			th.join();
+		}
+		while (t.drain() > 0) {
+		}
+		return rate;
+	}
+
+	/**
+	 * @param args
+	 *            Optional maximum number of producers and time per run in
+	 *            milliseconds.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the threads.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int max = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() - 1;
+		long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+		for (int p = 1; p <= Math.max(max, 1); p *= 2) {
+			MpscQueue<Integer> q = new MpscQueue<>();
+			double mpsc = measure(new Target() {
+				@Override
+				public void offer(Integer e) {
+					q.offer(e);
+				}
+
+				@Override
+				public int drain() {
+					return q.drain(x -> {
+					}, BATCH);
+				}
+			}, p, millis);
+			DLList<Integer> l = new DLList<>();
+			double locked = measure(new Target() {
+				@Override
+				public void offer(Integer e) {
+					synchronized (l) {
+						l.offer(e);
+					}
+				}
+
+				@Override
+				public int drain() {
+					synchronized (l) {
+						return l.pollBatch(BATCH).size();
+					}
+				}
+			}, p, millis);
+			System.out.printf("%d producers: MpscQueue %.1f Mops/s, synchronized DLList %.1f Mops/s%n", p,
+					mpsc / 1e6, locked / 1e6);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares a scheduler built on {@code WorkStealingDeque} with
+ * {@code ForkJoinPool} on the same recursive task tree. Each task of depth
+ * {@code d > 0} spawns two tasks of depth {@code d - 1}; leaves do a little
+ * work. Run with {@code java WorkStealingDequeBenchmark [threads] [depth]}.
+ *
+ * @author David Brown
+ */
+public class WorkStealingDequeBenchmark {
+
+	/**
+	 * Number of timed runs of each scheduler.
+	 */
+	private static final int RUNS = 10;
+
+	/**
+	 * Simulated work done by a leaf task.
+	 *
+	 * @param d
+	 *            Seed for the work.
+	 * @return A value depending on the work done.
+	 */
+	private static long leaf(long d) {
+		long x = d;
+		for (int i = 0; i < 64; i++) {
+			x = x * 6364136223846793005L + 1442695040888963407L;
+		}
+		return x;
+	}
+
+	/**
+	 * Run the task tree on {@code threads} workers, each owning a
+	 * {@code WorkStealingDeque} and stealing from a random other worker when
+	 * its own deque is empty.
+	 *
+	 * @param threads
+	 *            Number of workers.
+	 * @param depth
+	 *            Depth of the task tree.
+	 * @return Sum of the leaf results.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the workers.
+	 */
+	private static long runDeques(int threads, int depth) throws InterruptedException {
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		WorkStealingDeque<Integer>[] deques = new WorkStealingDeque[threads];
+		for (int i = 0; i < threads; i++) {
+			deques[i] = new WorkStealingDeque<>();
+		}
+		AtomicLong pending = new AtomicLong(1);
+		AtomicLong sum = new AtomicLong();
+		deques[0].push(depth);
+		Thread[] workers = new Thread[threads];
+		for (int w = 0; w < threads; w++) {
+			final int self = w;
+			workers[w] = new Thread(() -> {
+				Random r = new Random(self);
+				WorkStealingDeque<Integer> own = deques[self];
+				long local = 0;
+				while (pending.get() > 0) {
+					Integer d = own.pop();
+					if (d == null) {
+						d = deques[r.nextInt(threads)].steal();
+						if (d == null) {
+							Thread.yield();
+							continue;
+						}
+					}
+					if (d == 0) {
+						local += leaf(d);
+						pending.decrementAndGet();
+					} else {
+						pending.incrementAndGet();
+						own.push(d - 1);
+						own.push(d - 1);
+					}
+				}
+				sum.addAndGet(local);
+			});
+			workers[w].start();
+		}
+		for (Thread t : workers) {
+			t.join();
+		}
+		return sum.get();
+	}
+
+	/**
+	 * The same task tree as a {@code RecursiveAction}.
+	 */
+	private static class Task extends RecursiveAction {
+
+		/**
+		 * Generated {@code serialVersionUID}
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Depth of this task in the tree, leaves have depth 0.
+		 */
+		private final int depth;
+
+		/**
+		 * Sum of the leaf results.
+		 */
+		private final AtomicLong sum;
+
+		/**
+		 * @param depth
+		 *            Depth of this task in the tree.
+		 * @param sum
+		 *            Sum of the leaf results.
+		 */
+		private Task(int depth, AtomicLong sum) {
+			this.depth = depth;
+			this.sum = sum;
+		}
+
+		@Override
+		protected void compute() {
+			if (depth == 0) {
+				sum.addAndGet(leaf(depth));
+			} else {
+				invokeAll(new Task(depth - 1, sum), new Task(depth - 1, sum));
+			}
+		}
+	}
+
+	/**
+	 * Run the task tree on a {@code ForkJoinPool}.
+	 *
+	 * @param pool
+	 *            The pool to run on.
+	 * @param depth
+	 *            Depth of the task tree.
+	 * @return Sum of the leaf results.
+	 */
+	private static long runForkJoin(ForkJoinPool pool, int depth) {
+		AtomicLong sum = new AtomicLong();
+		pool.invoke(new Task(depth, sum));
+		return sum.get();
+	}
+
+	/**
+	 * @param args
+	 *            Optional number of threads and depth of the task tree.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the workers.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		long tasks = (1L << (depth + 1)) - 1;
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		for (int run = 0; run < RUNS; run++) {
+			long s = System.nanoTime();
+			runDeques(threads, depth);
+			long d = System.nanoTime() - s;
+			s = System.nanoTime();
+			runForkJoin(pool, depth);
+			long f = System.nanoTime() - s;
+			System.out.printf("run %d: WorkStealingDeque %.1f Mtasks/s, ForkJoinPool %.1f Mtasks/s%n", run,
+					tasks * 1e3 / d, tasks * 1e3 / f);
+		}
+		pool.shutdown();
+	}
+}
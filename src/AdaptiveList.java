@@ -0,0 +1,518 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * A list which switches between a linked layout, a {@code DLList}, and an
+ * array layout, an {@code ArrayList}, according to the operations being made
+ * on it.
+ *
+ * Each operation which is much cheaper in one layout than the other counts as
+ * a vote for that layout: reading or replacing by index away from the ends
+ * favours the array, while inserting or removing at the head, or through an
+ * iterator away from the tail, favours the linked layout. Appending and
+ * operations near the ends cost about the same in both and are not counted.
+ * Once the votes for the other layout outnumber those for the current one by
+ * {@code SWITCH}, the elements are copied into the other layout and the count
+ * starts again, so a short run of unusual operations never causes a switch
+ * and the list cannot switch back and forth on every operation.
+ *
+ * The layout is invisible to callers. Iterators carry on at the same position
+ * if the layout changes underneath them, and remain fail-fast for changes
+ * made other than through themselves.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class AdaptiveList<T> extends AbstractList<T> implements Queue<T> {
+
+	/**
+	 * Net number of votes for the other layout needed to switch to it.
+	 */
+	static final int SWITCH = 64;
+
+	/**
+	 * Operations within this distance of an end are cheap in both layouts.
+	 */
+	private static final int NEAR = 8;
+
+	/**
+	 * The list holding the elements.
+	 */
+	private List<T> impl;
+
+	/**
+	 * True if {@code impl} is a {@code DLList}, false if an {@code ArrayList}.
+	 */
+	private boolean linked;
+
+	/**
+	 * Votes for the array layout less votes for the linked layout, since the
+	 * last switch.
+	 */
+	private int score = 0;
+
+	/**
+	 * Number of times the layout has been switched, used by iterators to
+	 * notice that they must move to the new layout.
+	 */
+	private int switches = 0;
+
+	/**
+	 * Create an empty list, starting in the linked layout.
+	 */
+	public AdaptiveList() {
+		impl = new DLList<>();
+		linked = true;
+	}
+
+	/**
+	 * Create a list holding the given elements, starting in the array layout.
+	 *
+	 * @param c
+	 *            The initial elements.
+	 */
+	public AdaptiveList(Collection<? extends T> c) {
+		impl = new ArrayList<>(c);
+		linked = false;
+	}
+
+	/**
+	 * @return True if the elements are currently held in the linked layout.
+	 */
+	public boolean isLinked() {
+		return linked;
+	}
+
+	/**
+	 * Record a vote, switching layout if the other one has won.
+	 *
+	 * @param v
+	 *            Positive to favour the array layout, negative to favour the
+	 *            linked layout.
+	 */
+	private void vote(int v) {
+		score = Math.max(-SWITCH, Math.min(SWITCH, score + v));
+		if (linked ? score == SWITCH : score == -SWITCH) {
+			impl = linked ? new ArrayList<>(impl) : new DLList<>(impl);
+			linked = !linked;
+			score = 0;
+			switches++;
+		}
+	}
+
+	/**
+	 * @param index
+	 *            An index.
+	 * @return True if the index is near the head or the tail.
+	 */
+	private boolean nearEnd(int index) {
+		return index < NEAR || impl.size() - index <= NEAR;
+	}
+
+	/**
+	 * @param index
+	 *            An index.
+	 * @return True if the index is near the tail.
+	 */
+	private boolean nearTail(int index) {
+		return impl.size() - index <= NEAR;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#get(int)
+	 */
+	@Override
+	public T get(int index) {
+		if (!nearEnd(index)) {
+			vote(1);
+		}
+		return impl.get(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#set(int, java.lang.Object)
+	 */
+	@Override
+	public T set(int index, T element) {
+		if (!nearEnd(index)) {
+			vote(1);
+		}
+		return impl.set(index, element);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(T e) {
+		impl.add(e);
+		modCount++;
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(int, java.lang.Object)
+	 */
+	@Override
+	public void add(int index, T element) {
+		if (index < NEAR && !nearTail(index)) {
+			vote(-1);
+		}
+		impl.add(index, element);
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#remove(int)
+	 */
+	@Override
+	public T remove(int index) {
+		if (index < NEAR && !nearTail(index)) {
+			vote(-1);
+		}
+		T o = impl.remove(index);
+		modCount++;
+		return o;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#addAll(java.util.Collection)
+	 */
+	@Override
+	public boolean addAll(Collection<? extends T> c) {
+		boolean r = impl.addAll(c);
+		modCount++;
+		return r;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#size()
+	 */
+	@Override
+	public int size() {
+		return impl.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#clear()
+	 */
+	@Override
+	public void clear() {
+		impl.clear();
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return impl.contains(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#indexOf(java.lang.Object)
+	 */
+	@Override
+	public int indexOf(Object o) {
+		return impl.indexOf(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#lastIndexOf(java.lang.Object)
+	 */
+	@Override
+	public int lastIndexOf(Object o) {
+		return impl.lastIndexOf(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#toArray()
+	 */
+	@Override
+	public Object[] toArray() {
+		return impl.toArray();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#toArray(java.lang.Object[])
+	 */
+	@Override
+	public <E> E[] toArray(E[] a) {
+		return impl.toArray(a);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#offer(java.lang.Object)
+	 */
+	@Override
+	public boolean offer(T e) {
+		return add(e);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#remove()
+	 */
+	@Override
+	public T remove() {
+		if (impl.isEmpty()) {
+			throw new NoSuchElementException();
+		}
+		return remove(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#poll()
+	 */
+	@Override
+	public T poll() {
+		return impl.isEmpty() ? null : remove(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#element()
+	 */
+	@Override
+	public T element() {
+		if (impl.isEmpty()) {
+			throw new NoSuchElementException();
+		}
+		return impl.get(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#peek()
+	 */
+	@Override
+	public T peek() {
+		return impl.isEmpty() ? null : impl.get(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#listIterator(int)
+	 */
+	@Override
+	public ListIterator<T> listIterator(int index) {
+		if (index < 0 || index > impl.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		return new It(index);
+	}
+
+	/**
+	 * List iterator which works through an iterator of the current layout,
+	 * reopening it at the same position if the layout is switched.
+	 */
+	private class It implements ListIterator<T> {
+
+		/**
+		 * The expected modification count.
+		 */
+		private int xp = modCount;
+
+		/**
+		 * The value of {@code switches} when {@code it} was opened.
+		 */
+		private int sw = switches;
+
+		/**
+		 * Iterator of the current layout.
+		 */
+		private ListIterator<T> it;
+
+		/**
+		 * 1 if the last element was returned by {@code next()}, -1 if by
+		 * {@code previous()}, or 0 if there is no last element.
+		 */
+		private int last = 0;
+
+		/**
+		 * Initialise the iterator at the given index.
+		 *
+		 * @param index
+		 *            Index of the first element to be returned by
+		 *            {@code next()}.
+		 */
+		private It(int index) {
+			it = impl.listIterator(index);
+		}
+
+		/**
+		 * Check for modification by others, and move to the current layout
+		 * if it has been switched, restoring the last returned element.
+		 */
+		private void check() {
+			if (xp != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (sw != switches) {
+				int i = it.nextIndex();
+				if (last == 1) {
+					it = impl.listIterator(i - 1);
+					it.next();
+				} else if (last == -1) {
+					it = impl.listIterator(i + 1);
+					it.previous();
+				} else {
+					it = impl.listIterator(i);
+				}
+				sw = switches;
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			return it.hasNext();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public T next() {
+			check();
+			T o = it.next();
+			last = 1;
+			return o;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#hasPrevious()
+		 */
+		@Override
+		public boolean hasPrevious() {
+			return it.hasPrevious();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#previous()
+		 */
+		@Override
+		public T previous() {
+			check();
+			T o = it.previous();
+			last = -1;
+			return o;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#nextIndex()
+		 */
+		@Override
+		public int nextIndex() {
+			return it.nextIndex();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#previousIndex()
+		 */
+		@Override
+		public int previousIndex() {
+			return it.previousIndex();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			check();
+			it.remove();
+			last = 0;
+			xp = ++modCount;
+			if (!nearTail(it.nextIndex())) {
+				vote(-1);
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#set(java.lang.Object)
+		 */
+		@Override
+		public void set(T e) {
+			check();
+			it.set(e);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#add(java.lang.Object)
+		 */
+		@Override
+		public void add(T e) {
+			check();
+			it.add(e);
+			last = 0;
+			xp = ++modCount;
+			if (!nearTail(it.nextIndex())) {
+				vote(-1);
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.LinkedList;
+import java.util.ListIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveListTestCase {
+
+	LinkedList<Integer> test;
+	AdaptiveList<Integer> list;
+
+	@Before
+	public void setup() {
+		test = new LinkedList<>();
+		list = new AdaptiveList<>();
+		for (int i = 0; i < 1000; i++) {
+			test.add(i);
+			list.add(i);
+		}
+	}
+
+	@Test
+	public void testSwitchesByOperationMix() {
+		assertTrue(list.isLinked());
+		for (int i = 0; i < AdaptiveList.SWITCH - 1; i++) {
+			assertEquals(test.get(500), list.get(500));
+		}
+		assertTrue(list.isLinked());
+		list.get(500);
+		assertFalse(list.isLinked()); // Positional reads dominate
+
+		// A few head operations are not enough to switch back
+		for (int i = 0; i < AdaptiveList.SWITCH / 2; i++) {
+			list.poll();
+			test.poll();
+		}
+		assertFalse(list.isLinked());
+		ListIterator<Integer> it = list.listIterator(100);
+		ListIterator<Integer> tit = test.listIterator(100);
+		for (int i = 0; i < AdaptiveList.SWITCH / 2; i++) {
+			it.add(-i);
+			tit.add(-i);
+		}
+		assertTrue(list.isLinked()); // Iterator inserts dominate
+		assertArrayEquals(test.toArray(), list.toArray());
+	}
+
+	@Test
+	public void testIteratorSurvivesSwitch() {
+		ListIterator<Integer> it = list.listIterator();
+		ListIterator<Integer> tit = test.listIterator();
+		for (int i = 0; i < 10; i++) {
+			it.next();
+			tit.next();
+		}
+		for (int i = 0; i < AdaptiveList.SWITCH; i++) {
+			list.get(500);
+		}
+		assertFalse(list.isLinked());
+		it.remove();
+		tit.remove();
+		assertEquals(tit.next(), it.next());
+		assertEquals(tit.previous(), it.previous());
+		for (int i = 0; i < 2 * AdaptiveList.SWITCH; i++) {
+			it.add(i);
+			tit.add(i);
+		}
+		assertTrue(list.isLinked());
+		assertEquals(tit.previous(), it.previous());
+		it.set(7);
+		tit.set(7);
+		assertArrayEquals(test.toArray(), list.toArray());
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIteratorFailFast() {
+		ListIterator<Integer> it = list.listIterator();
+		it.next();
+		list.add(1);
+		it.next();
+	}
+}
@@ -0,0 +1,161 @@
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the cost of {@code DLList} operations, rather than their results, by
+ * counting the steps taken between elements at growing list sizes.
+ */
+public class ComplexityTestCase {
+
+	static final int[] SIZES = { 1000, 10000, 100000 };
+
+	@Before
+	public void setup() {
+		DLList.countHops(true);
+	}
+
+	@After
+	public void teardown() {
+		DLList.countHops(false);
+	}
+
+	/**
+	 * Count the steps taken by an operation on a list of the given size,
+	 * holding 0 to size - 1.
+	 */
+	static long cost(int size, Consumer<DLList<Integer>> op) {
+		DLList<Integer> list = new DLList<>();
+		for (int i = 0; i < size; i++) {
+			list.add(i);
+		}
+		long before = DLList.hops();
+		op.accept(list);
+		return DLList.hops() - before;
+	}
+
+	/**
+	 * Check that an operation takes at most {@code bound} steps at every size.
+	 */
+	static void assertConstant(String name, long bound, Consumer<DLList<Integer>> op) {
+		for (int n : SIZES) {
+			long c = cost(n, op);
+			assertTrue(name + " took " + c + " steps at size " + n + ", expected at most " + bound, c <= bound);
+		}
+	}
+
+	/**
+	 * Check that an operation takes at most {@code passes} steps per element at
+	 * every size, so is a fixed number of passes over the list.
+	 */
+	static void assertLinear(String name, int passes, Consumer<DLList<Integer>> op) {
+		for (int n : SIZES) {
+			long c = cost(n, op);
+			assertTrue(name + " took " + c + " steps at size " + n + ", expected at most " + passes * n,
+					c <= (long) passes * n);
+		}
+	}
+
+	@Test
+	public void testQueueOperationsAreConstant() {
+		assertConstant("add", 0, l -> l.add(-1));
+		assertConstant("offer", 0, l -> l.offer(-1));
+		assertConstant("poll", 0, l -> l.poll());
+		assertConstant("peek", 0, l -> l.peek());
+		assertConstant("element", 0, l -> l.element());
+		assertConstant("remove()", 0, l -> l.remove());
+		assertConstant("offerAll", 0, l -> l.offerAll(Arrays.asList(1, 2, 3)));
+		assertConstant("addAll", 0, l -> l.addAll(Arrays.asList(1, 2, 3)));
+		assertConstant("pollBatch", 0, l -> l.pollBatch(0));
+		assertConstant("handles", 0, l -> {
+			DLList.Handle<Integer> h = l.addAndGetHandle(-1);
+			l.moveToFront(h);
+			l.insertAfter(h, -2);
+			l.remove(h);
+		});
+		assertConstant("remove(firstHandle)", 1, l -> l.remove(l.firstHandle()));
+		assertConstant("remove(lastHandle)", 1, l -> l.remove(l.lastHandle()));
+		assertConstant("handle reached by next()", 0, l -> {
+			DLList.Handle<Integer> h = l.firstHandle();
+			for (int i = 0; i < l.size() / 2; i++) {
+				h = h.next();
+			}
+			l.moveToFront(h);
+			l.insertAfter(h, -1);
+			l.remove(h);
+		});
+	}
+
+	@Test
+	public void testRemovingWhileWalkingHandlesIsLinear() {
+		assertLinear("remove every other handle", 1, l -> {
+			int i = 0;
+			for (DLList.Handle<Integer> h = l.firstHandle(), n; h != null; h = n) {
+				n = h.next();
+				if (i++ % 2 == 0) {
+					l.remove(h);
+				}
+			}
+		});
+	}
+
+	@Test
+	public void testOperationsNearEitherEndAreBounded() {
+		for (int k = 0; k < 4; k++) {
+			final int d = k;
+			assertConstant("get(" + d + ")", d, l -> l.get(d));
+			assertConstant("get(size - 1 - " + d + ")", d, l -> l.get(l.size() - 1 - d));
+			assertConstant("set(size - 1 - " + d + ")", d, l -> l.set(l.size() - 1 - d, -1));
+			assertConstant("add(size - 1 - " + d + ")", d, l -> l.add(l.size() - 1 - d, -1));
+			assertConstant("remove(size - 1 - " + d + ")", d, l -> l.remove(l.size() - 1 - d));
+			assertConstant("remove(" + d + ")", d, l -> l.remove(d));
+			assertConstant("listIterator(" + d + ")", d, l -> l.listIterator(d));
+			assertConstant("listIterator(size - " + d + ")", d, l -> l.listIterator(l.size() - d));
+		}
+		assertConstant("drainTo", 6, l -> l.drainTo(new ArrayList<>(), 3)); // Copy, then mark
+		assertConstant("lastIndexOf(last)", 1, l -> l.lastIndexOf(l.size() - 1));
+	}
+
+	@Test
+	public void testBulkOperationsAreSinglePass() {
+		Set<Integer> evens = new HashSet<>();
+		for (int i = 0; i < SIZES[SIZES.length - 1]; i += 2) {
+			evens.add(i);
+		}
+		assertLinear("contains", 1, l -> l.contains(-1));
+		assertLinear("indexOf", 1, l -> l.indexOf(-1));
+		assertLinear("lastIndexOf", 1, l -> l.lastIndexOf(-1));
+		assertLinear("parallelIndexOf", 2, l -> l.parallelIndexOf(-1));
+		assertLinear("parallelLastIndexOf", 2, l -> l.parallelLastIndexOf(-1));
+		assertLinear("remove(Object)", 1, l -> l.remove(Integer.valueOf(-1)));
+		assertLinear("get(middle)", 1, l -> l.get(l.size() / 2));
+		assertLinear("iteration", 1, l -> {
+			for (Iterator<Integer> it = l.iterator(); it.hasNext();) {
+				it.next();
+			}
+		});
+		assertLinear("toArray", 1, l -> l.toArray());
+		assertLinear("toArray(E[])", 1, l -> l.toArray(new Integer[0]));
+		assertLinear("containsAll", 1, l -> l.containsAll(evens));
+		assertLinear("removeAll", 1, l -> l.removeAll(evens));
+		assertLinear("retainAll", 1, l -> l.retainAll(evens));
+		assertLinear("clear", 1, l -> l.clear());
+		assertLinear("drainTo", 2, l -> l.drainTo(new ArrayList<>()));
+		assertLinear("addAll(middle)", 1, l -> l.addAll(l.size() / 2, Arrays.asList(1, 2, 3)));
+		assertLinear("subList", 1, l -> l.subList(1, l.size() - 1));
+		assertLinear("stableIterator", 1, l -> {
+			List<Integer> seen = new ArrayList<>();
+			l.stableIterator().forEachRemaining(seen::add);
+		});
+	}
+}
@@ -0,0 +1,432 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A view presenting several {@code DLList}s as one list, holding the
+ * elements of the first list followed by those of the second and so on.
+ *
+ * Nothing is copied: every operation is routed to the list holding the
+ * elements concerned, so changes made to the underlying lists show through
+ * the view immediately. The size is the sum of their sizes, and reading,
+ * replacing or removing by index first finds the list holding the index,
+ * taking time proportional to the number of lists, then walks that list from
+ * its nearer end. Iterators and spliterators work through the iterators and
+ * spliterators of each list in turn, and a spliterator splits at the
+ * boundaries between lists before splitting any one of them, so each list
+ * can be processed by a separate thread.
+ *
+ * Elements cannot be added through the view, since it is not clear which of
+ * two lists should receive an element added at their boundary. Iterators
+ * support {@code remove()}, and are fail-fast if the list being iterated is
+ * changed other than through them.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object stored in the lists.
+ */
+public class ConcatenatedList<T> extends AbstractList<T> {
+
+	/**
+	 * The lists, in order.
+	 */
+	private final List<DLList<T>> parts;
+
+	/**
+	 * Create a view of the given lists, in order. The lists may change
+	 * afterwards, but the view always consists of these lists.
+	 *
+	 * @param lists
+	 *            The lists.
+	 */
+	@SafeVarargs
+	public ConcatenatedList(DLList<T>... lists) {
+		parts = new ArrayList<>(lists.length);
+		for (DLList<T> l : lists) {
+			parts.add(Objects.requireNonNull(l));
+		}
+	}
+
+	/**
+	 * A position in one of the lists.
+	 */
+	private static final class Position {
+
+		/**
+		 * Index of the list.
+		 */
+		private final int part;
+
+		/**
+		 * Index within the list.
+		 */
+		private final int index;
+
+		/**
+		 * Initialise a position.
+		 *
+		 * @param part
+		 *            Index of the list.
+		 * @param index
+		 *            Index within the list.
+		 */
+		private Position(int part, int index) {
+			this.part = part;
+			this.index = index;
+		}
+	}
+
+	/**
+	 * Find the list holding an index of the view.
+	 *
+	 * @param index
+	 *            An index of the view.
+	 * @return The position of the element at that index.
+	 * @throws IndexOutOfBoundsException
+	 *             If the index is not in the view.
+	 */
+	private Position find(int index) {
+		if (index >= 0) {
+			int i = index;
+			for (int p = 0; p < parts.size(); p++) {
+				int n = parts.get(p).size();
+				if (i < n) {
+					return new Position(p, i);
+				}
+				i -= n;
+			}
+		}
+		throw new IndexOutOfBoundsException("Index: " + index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#size()
+	 */
+	@Override
+	public int size() {
+		long n = 0;
+		for (DLList<T> l : parts) {
+			n += l.size();
+		}
+		return (int) Math.min(n, Integer.MAX_VALUE);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#isEmpty()
+	 */
+	@Override
+	public boolean isEmpty() {
+		for (DLList<T> l : parts) {
+			if (!l.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#get(int)
+	 */
+	@Override
+	public T get(int index) {
+		Position p = find(index);
+		return parts.get(p.part).get(p.index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#set(int, java.lang.Object)
+	 */
+	@Override
+	public T set(int index, T element) {
+		Position p = find(index);
+		return parts.get(p.part).set(p.index, element);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#remove(int)
+	 */
+	@Override
+	public T remove(int index) {
+		Position p = find(index);
+		modCount++;
+		return parts.get(p.part).remove(p.index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#clear()
+	 */
+	@Override
+	public void clear() {
+		for (DLList<T> l : parts) {
+			l.clear();
+		}
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		for (DLList<T> l : parts) {
+			if (l.contains(o)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#indexOf(java.lang.Object)
+	 */
+	@Override
+	public int indexOf(Object o) {
+		int base = 0;
+		for (DLList<T> l : parts) {
+			int i = l.indexOf(o);
+			if (i >= 0) {
+				return base + i;
+			}
+			base += l.size();
+		}
+		return -1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#lastIndexOf(java.lang.Object)
+	 */
+	@Override
+	public int lastIndexOf(Object o) {
+		int base = size();
+		for (int p = parts.size() - 1; p >= 0; p--) {
+			base -= parts.get(p).size();
+			int i = parts.get(p).lastIndexOf(o);
+			if (i >= 0) {
+				return base + i;
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Iterable#forEach(java.util.function.Consumer)
+	 */
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		Objects.requireNonNull(action);
+		for (DLList<T> l : parts) {
+			l.forEach(action);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#iterator()
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+
+			/**
+			 * Index of the list being iterated.
+			 */
+			private int part = 0;
+
+			/**
+			 * Iterator of that list.
+			 */
+			private Iterator<T> it = parts.size() == 0 ? null : parts.get(0).iterator();
+
+			/**
+			 * Iterator which returned the last element, or null if it may
+			 * not be removed.
+			 */
+			private Iterator<T> last = null;
+
+			@Override
+			public boolean hasNext() {
+				while (it != null && !it.hasNext()) {
+					it = ++part < parts.size() ? parts.get(part).iterator() : null;
+				}
+				return it != null;
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				T o = it.next();
+				last = it;
+				return o;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				last.remove();
+				last = null;
+				modCount++;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#spliterator()
+	 */
+	@Override
+	public Spliterator<T> spliterator() {
+		return new Split(0, parts.size());
+	}
+
+	/**
+	 * Spliterator over a range of the lists, which splits the range in two
+	 * while it holds more than one list, and then splits the spliterator of
+	 * the single list left.
+	 */
+	private class Split implements Spliterator<T> {
+
+		/**
+		 * Index of the first list still to be traversed.
+		 */
+		private int lo;
+
+		/**
+		 * One after the index of the last list to be traversed.
+		 */
+		private final int hi;
+
+		/**
+		 * Spliterator of the list {@code lo}, or null if it has not been
+		 * started.
+		 */
+		private Spliterator<T> cur = null;
+
+		/**
+		 * Initialise a spliterator over a range of the lists.
+		 *
+		 * @param lo
+		 *            Index of the first list.
+		 * @param hi
+		 *            One after the index of the last list.
+		 */
+		private Split(int lo, int hi) {
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Spliterator#tryAdvance(java.util.function.Consumer)
+		 */
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			Objects.requireNonNull(action);
+			for (; lo < hi; lo++, cur = null) {
+				if (cur == null) {
+					cur = parts.get(lo).spliterator();
+				}
+				if (cur.tryAdvance(action)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Spliterator#forEachRemaining(java.util.function.Consumer)
+		 */
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			Objects.requireNonNull(action);
+			for (; lo < hi; lo++, cur = null) {
+				if (cur == null) {
+					cur = parts.get(lo).spliterator();
+				}
+				cur.forEachRemaining(action);
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Spliterator#trySplit()
+		 */
+		@Override
+		public Spliterator<T> trySplit() {
+			if (hi - lo > 1) {
+				int mid = (lo + hi + 1) >>> 1;
+				Split prefix = new Split(lo, mid);
+				prefix.cur = cur;
+				lo = mid;
+				cur = null;
+				return prefix;
+			}
+			if (lo == hi) {
+				return null;
+			}
+			if (cur == null) {
+				cur = parts.get(lo).spliterator();
+			}
+			return cur.trySplit();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Spliterator#estimateSize()
+		 */
+		@Override
+		public long estimateSize() {
+			long n = 0;
+			for (int p = lo; p < hi; p++) {
+				n += p == lo && cur != null ? cur.estimateSize() : parts.get(p).size();
+			}
+			return n;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Spliterator#characteristics()
+		 */
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcatenatedListTestCase {
+
+	DLList<Integer> a, b, c;
+	ConcatenatedList<Integer> view;
+
+	@Before
+	public void setup() {
+		a = new DLList<>(Arrays.asList(0, 1, 2));
+		b = new DLList<>();
+		c = new DLList<>(Arrays.asList(3, 4, 5, 6));
+		view = new ConcatenatedList<>(a, b, c);
+	}
+
+	List<Integer> expected() {
+		List<Integer> l = new ArrayList<>(a);
+		l.addAll(b);
+		l.addAll(c);
+		return l;
+	}
+
+	@Test
+	public void testRouting() {
+		assertEquals(7, view.size());
+		assertArrayEquals(new Integer[] { 0, 1, 2, 3, 4, 5, 6 }, view.toArray());
+		assertEquals(Integer.valueOf(3), view.get(3));
+		assertEquals(Integer.valueOf(4), view.set(4, 40));
+		assertEquals(Integer.valueOf(40), c.get(1));
+		assertEquals(Integer.valueOf(2), view.remove(2));
+		assertEquals(2, a.size());
+		assertEquals(3, view.indexOf(40));
+		assertEquals(-1, view.indexOf(2));
+		assertTrue(view.contains(6));
+		assertEquals(expected(), view);
+	}
+
+	@Test
+	public void testChangesShowThrough() {
+		b.add(100);
+		a.add(0, -1);
+		c.poll();
+		assertEquals(expected(), view);
+		assertEquals(4, view.indexOf(100));
+		b.add(100);
+		assertEquals(5, view.lastIndexOf(100));
+		a.clear();
+		c.clear();
+		assertEquals(Arrays.asList(100, 100), view);
+		b.clear();
+		assertTrue(view.isEmpty());
+		assertFalse(view.iterator().hasNext());
+	}
+
+	@Test
+	public void testIteratorRemove() {
+		for (Iterator<Integer> it = view.iterator(); it.hasNext();) {
+			if (it.next() % 2 == 1) {
+				it.remove();
+			}
+		}
+		assertEquals(Arrays.asList(0, 2), a);
+		assertEquals(Arrays.asList(4, 6), c);
+		assertEquals(Arrays.asList(0, 2, 4, 6), view);
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIteratorIsFailFast() {
+		Iterator<Integer> it = view.iterator();
+		it.next();
+		a.add(9);
+		it.next();
+	}
+
+	@Test
+	public void testSpliterator() {
+		for (int i = 0; i < 1000; i++) {
+			b.add(i);
+		}
+		assertEquals(expected(), StreamSupport.stream(view.spliterator(), true).collect(Collectors.toList()));
+		Spliterator<Integer> s = view.spliterator();
+		assertEquals(1007, s.estimateSize());
+		Spliterator<Integer> p = s.trySplit(); // a and b
+		assertEquals(1003, p.estimateSize());
+		assertEquals(4, s.estimateSize());
+		assertTrue(p.tryAdvance(x -> assertEquals(0, (int) x)));
+		assertEquals(expected().stream().mapToLong(x -> x).sum(), view.stream().mapToLong(x -> x).sum());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBadIndex() {
+		view.get(7);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testAddUnsupported() {
+		view.add(1);
+	}
+}
@@ -1,4 +1,6 @@
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
@@ -7,6 +9,14 @@ import java.util.ListIterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * Copyright (C) 2015 David Brown. Permission is granted to copy, distribute
@@ -39,6 +49,23 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	 */
 	private static final long serialVersionUID = -4402595667489128874L;
 
+	/**
+	 * Number of nodes a single operation must walk over to be recorded as a
+	 * JFR event, when metrics are first enabled.
+	 */
+	private static final int DEFAULT_TRAVERSAL_THRESHOLD = 10000;
+
+	/**
+	 * Lists shorter than this are searched in the calling thread by the
+	 * parallel search methods.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	/**
+	 * Smallest number of elements between checkpoints.
+	 */
+	private static final int MIN_SEGMENT = 1 << 12;
+
 	/**
 	 * Number of modifications made to the list. Only incremented when the
 	 * elements in the list are changed, and not when simply reading from the
@@ -56,15 +83,63 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	 * next and previous fields point to the start and end of the list
 	 * respectively.
 	 */
-	private Elem dummy;
+	private Elem<T> dummy;
+
+	/**
+	 * Number of steps taken from one element to the next or previous by all
+	 * lists, counted only while {@code countHops} is set. Used by tests to
+	 * check the cost of operations. Steps may be taken by the worker threads
+	 * of the parallel operations, so the count is a {@code LongAdder}.
+	 */
+	private static final LongAdder hops = new LongAdder();
+
+	/**
+	 * True while steps are being counted. Not volatile, so that while it is
+	 * clear each step costs only a well predicted branch; it must be set
+	 * before the lists to be measured are used, and parallel operations see
+	 * it because starting their tasks publishes it to the workers.
+	 */
+	private static boolean countHops = false;
+
+	/**
+	 * Number of insertions and removals made away from the ends of the list
+	 * since it was last defragmented. Such changes leave neighbouring elements
+	 * scattered in memory.
+	 */
+	private transient int churn = 0;
+
+	/**
+	 * Churn, as a multiple of the size, at which {@code add} defragments the
+	 * list, or zero to never defragment automatically.
+	 */
+	private double autoDefragment = 0;
+
+	/**
+	 * True once a handle has been given out. Defragmenting replaces every
+	 * element, which would leave handles referring to removed elements, so is
+	 * then no longer allowed.
+	 */
+	private transient boolean handles = false;
+
+	/**
+	 * Counters of the work done by the list, or null if metrics are not
+	 * enabled. Every instrumented operation checks this once, so disabled
+	 * metrics cost a single field read.
+	 */
+	private transient DLListMetrics metrics = null;
+
+	/**
+	 * Checkpoints taken by the last parallel search, reused until the list is
+	 * modified. Cleared with the list so that it does not keep removed
+	 * elements alive.
+	 */
+	private transient volatile Checkpoints<T> checkpoints = null;
 
 	/**
 	 * Default initialisation of the Linked list.
 	 */
 	public DLList() {
-		dummy = new Elem(null, null, null);
-		dummy.prev = dummy;
-		dummy.next = dummy;
+		dummy = new Sentinel<>(this);
 	}
 
 	/**
@@ -80,15 +155,58 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		addAll(c);
 	}
 
+	/**
+	 * A reference to one element of a list, which stays valid for as long as
+	 * the element remains in the list. Handles allow a particular occurrence
+	 * of an element to be found, removed or moved in constant time, without
+	 * searching the list. Two handles of the same element are equal, though
+	 * they are not always the same object.
+	 *
+	 * @param <T>
+	 *            Type of object stored in the list.
+	 */
+	public interface Handle<T> {
+
+		/**
+		 * @return The element this handle refers to.
+		 */
+		T get();
+
+		/**
+		 * @return The handle of the following element, or null if this is the
+		 *         last element or has been removed from the list.
+		 */
+		Handle<T> next();
+
+		/**
+		 * @return The handle of the preceding element, or null if this is the
+		 *         first element or has been removed from the list.
+		 */
+		Handle<T> prev();
+
+		/**
+		 * @return True if the element is still in the list.
+		 */
+		boolean isLinked();
+	}
+
 	/**
 	 * Class which implements the structure of a linked list. Has pointers to
 	 * the next and previous element in the list, and also holds an object which
 	 * is of the type of object being stored by this list.
 	 *
+	 * The class is static and has no other fields, so that each element costs
+	 * only an object header and three references. The few elements which need
+	 * to know their list are instances of the subclasses {@code Owned} and
+	 * {@code Sentinel}; handles of other elements are {@code Ref}s pairing
+	 * the element with its list.
+	 *
 	 * @author David
 	 *
+	 * @param <T>
+	 *            Type of object stored in the list.
 	 */
-	private class Elem {
+	private static class Elem<T> {
 
 		/**
 		 * Actual data being stored by the list.
@@ -99,13 +217,13 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		 * Pointer to the next element in the list, or to the dummy element if
 		 * there are no further elements.
 		 */
-		private Elem next;
+		private Elem<T> next;
 
 		/**
 		 * Pointer to the previous element in the list, or the dummy element if
 		 * there are no previous elements.
 		 */
-		private Elem prev;
+		private Elem<T> prev;
 
 		/**
 		 * Initialise the element with the given pointers.
@@ -117,60 +235,163 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		 * @param p
 		 *            The element preceding this element.
 		 */
-		private Elem(T c, Elem n, Elem p) {
+		private Elem(T c, Elem<T> n, Elem<T> p) {
 			this.content = c;
 			next = n;
 			prev = p;
 		}
 
+	}
+
+	/**
+	 * An element which knows the list which created it, so that it can serve
+	 * as its own handle and be checked in constant time. Used for the elements
+	 * created by the methods which return a handle.
+	 *
+	 * @param <T>
+	 *            Type of object stored in the list.
+	 */
+	private static class Owned<T> extends Elem<T> implements Handle<T> {
+
 		/**
-		 * Initialise an element without specifying its pointers. The next and
-		 * previous fields are initialised to the dummy element.
+		 * The list which created this element.
+		 */
+		private final DLList<T> list;
+
+		/**
+		 * Initialise the element with the given pointers.
 		 *
 		 * @param c
-		 *            The object to be stored in this element.
+		 *            The object which is to be stored in the list.
+		 * @param n
+		 *            The successor of this element.
+		 * @param p
+		 *            The element preceding this element.
+		 * @param list
+		 *            The list which created this element.
 		 */
-		private Elem(T c) {
-			this.content = c;
-			next = dummy;
-			prev = dummy;
+		private Owned(T c, Elem<T> n, Elem<T> p, DLList<T> list) {
+			super(c, n, p);
+			this.list = list;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see DLList.Handle#get()
+		 */
+		@Override
+		public T get() {
+			Elem<T> e = this;
+			return e.content;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see DLList.Handle#next()
+		 */
+		@Override
+		public Handle<T> next() {
+			Elem<T> e = this;
+			return e.prev == null ? null : handle(list, e.next);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see DLList.Handle#prev()
+		 */
+		@Override
+		public Handle<T> prev() {
+			Elem<T> e = this;
+			return e.prev == null ? null : handle(list, e.prev);
 		}
 
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see DLList.Handle#isLinked()
+		 */
+		@Override
+		public boolean isLinked() {
+			Elem<T> e = this;
+			return e.prev != null;
+		}
+	}
+
+	/**
+	 * The handle of an element which does not know its list, pairing it with
+	 * the list so that it can be checked in constant time. Elements never move
+	 * from one list to another, so the pairing stays correct for as long as
+	 * the element is linked.
+	 *
+	 * @param <T>
+	 *            Type of object stored in the list.
+	 */
+	private static final class Ref<T> implements Handle<T> {
+
+		/**
+		 * The list holding the element.
+		 */
+		private final DLList<T> list;
+
+		/**
+		 * The element.
+		 */
+		private final Elem<T> elem;
+
 		/**
-		 * Specialised hashcode function to ensure that if the dummy element is
-		 * the caller (gone over the end of the list, or gone before the start
-		 * of the list), then we return immediately. This is since the hashcode
-		 * is recursively calculated from the dummy element.
+		 * Initialise a handle.
 		 *
-		 * @param caller
-		 *            The parent of this element, this element is referenced in
-		 *            the parent's by either the {@code next} or {@code prev}
-		 *            field.
-		 * @return The resulting hashcode of this element.
-		 */
-		private int innerHashCode(Elem caller) {
-			if (caller == dummy) {
-				return 1;
-			} else {
-				return hashCode(); // Need to check if the caller is the dummy,
-									// since dummy is always the first element
-									// processed by the list's hashcode function
-			}
+		 * @param list
+		 *            The list holding the element.
+		 * @param elem
+		 *            The element.
+		 */
+		private Ref(DLList<T> list, Elem<T> elem) {
+			this.list = list;
+			this.elem = elem;
 		}
 
 		/*
 		 * (non-Javadoc)
 		 * 
-		 * @see java.lang.Object#hashCode()
+		 * @see DLList.Handle#get()
 		 */
 		@Override
-		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + next.innerHashCode(this);
-			result = prime * result + prev.innerHashCode(this);
-			result = prime * result + (content == null ? 1 : content.hashCode());
-			return result;
+		public T get() {
+			return elem.content;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see DLList.Handle#next()
+		 */
+		@Override
+		public Handle<T> next() {
+			return elem.prev == null ? null : handle(list, elem.next);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see DLList.Handle#prev()
+		 */
+		@Override
+		public Handle<T> prev() {
+			return elem.prev == null ? null : handle(list, elem.prev);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see DLList.Handle#isLinked()
+		 */
+		@Override
+		public boolean isLinked() {
+			return elem.prev != null;
 		}
 
 		/*
@@ -179,40 +400,74 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		 * @see java.lang.Object#equals(java.lang.Object)
 		 */
 		@Override
-		public boolean equals(Object obj) {
-			if (this == obj) {
-				return true;
-			}
-			if (obj == null) {
-				return false;
-			}
-			if (!(obj instanceof DLList.Elem)) {
-				return false;
-			}
-			@SuppressWarnings({ "unchecked", "rawtypes" })
-			Elem other = (DLList.Elem) obj;
-			if (content == null) {
-				if (other.content != null) {
-					return false;
-				}
-			} else if (!content.equals(other.content)) {
-				return false;
-			}
-			if (other.next == this.next && other.prev == this.prev) {
-				return true;
-			}
-			if (next == null) {
-				if (other.next != null) {
-					return false;
-				}
-			}
-			if (prev == null) {
-				if (other.prev != null) {
-					return false;
-				}
-			}
-			return true;
+		public boolean equals(Object o) {
+			return o instanceof Ref && ((Ref<?>) o).elem == elem;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(elem);
+		}
+	}
+
+	/**
+	 * @param list
+	 *            The list holding the element.
+	 * @param e
+	 *            An element of the list, or its dummy.
+	 * @return The handle of the element, or null for the dummy.
+	 */
+	private static <T> Handle<T> handle(DLList<T> list, Elem<T> e) {
+		if (e instanceof Sentinel) {
+			return null;
 		}
+		return e instanceof Owned ? (Owned<T>) e : new Ref<>(list, e);
+	}
+
+	/**
+	 * The dummy element of a list, recognised by its class so that plain
+	 * elements need not refer to it.
+	 *
+	 * @param <T>
+	 *            Type of object stored in the list.
+	 */
+	private static final class Sentinel<T> extends Owned<T> {
+
+		/**
+		 * Initialise the dummy element of an empty list.
+		 *
+		 * @param list
+		 *            The list.
+		 */
+		private Sentinel(DLList<T> list) {
+			super(null, null, null, list);
+			Elem<T> e = this;
+			e.next = this;
+			e.prev = this;
+		}
+	}
+
+	/**
+	 * Allocate a new element, counting it if metrics are enabled.
+	 *
+	 * @param c
+	 *            The object which is to be stored in the list.
+	 * @param n
+	 *            The successor of the element.
+	 * @param p
+	 *            The element preceding the element.
+	 * @return The new element.
+	 */
+	private Elem<T> elem(T c, Elem<T> n, Elem<T> p) {
+		if (metrics != null) {
+			metrics.allocated();
+		}
+		return new Elem<>(c, n, p);
 	}
 
 	/*
@@ -243,13 +498,15 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	@Override
 	public boolean contains(Object o) {
 		if (o == null) {
-			for (Elem e = dummy.next; e != dummy; e = e.next) {
+			for (Elem<T> e = dummy.next; e != dummy; e = e.next) {
+				hop();
 				if (e.content == null) {
 					return true;
 				}
 			}
 		} else {
-			for (Elem e = dummy.next; e != dummy; e = e.next) {
+			for (Elem<T> e = dummy.next; e != dummy; e = e.next) {
+				hop();
 				if (o.equals(e.content)) {
 					return true;
 				}
@@ -276,7 +533,7 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		 * list. The current element always references the next element to be
 		 * processed by the {@code next()} method.
 		 */
-		private Elem cur = dummy.next;
+		private Elem<T> cur = dummy.next;
 
 		/**
 		 * The element that was last returned either by {@code next()} or
@@ -285,7 +542,7 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		 * have been called since the last call to {@code next} or
 		 * {@code previous}
 		 */
-		private Elem lr = null;
+		private Elem<T> lr = null;
 
 		/**
 		 * Pointer to the current index in the list this iterator is pointing
@@ -317,6 +574,7 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 			T o = cur.prev.content;
 			lr = cur.prev;
 			cur = lr;
+			hop();
 			p--;
 			return o;
 		}
@@ -352,10 +610,14 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 			if (lr == null) {
 				throw new IllegalStateException();
 			}
-			lr.next.prev = lr.prev;
-			lr.prev.next = lr.next;
+			unlink(lr);
+			if (lr == cur) {
+				cur = lr.next; // Removed after a call to previous()
+			} else {
+				p--; // Removed after a call to next()
+			}
 			lr = null;
-			size--;
+			xp = ++modCount;
 		}
 
 		/*
@@ -382,6 +644,9 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		 */
 		private void checkModification() {
 			if (xp != modCount) {
+				if (metrics != null) {
+					metrics.concurrentModification();
+				}
 				throw new ConcurrentModificationException();
 			}
 		}
@@ -394,13 +659,18 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		@Override
 		public void add(T e) {
 			checkModification();
-			Elem a = new Elem(e);
+			if (cur != dummy) {
+				churn++;
+			}
+			Elem<T> a = elem(e, dummy, dummy);
 			cur.prev.next = a;
 			a.prev = cur.prev;
 			cur.prev = a;
 			a.next = cur;
 			lr = null;
+			p++;
 			size++;
+			xp = ++modCount;
 		}
 
 		/*
@@ -427,6 +697,7 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 			T o = cur.content;
 			lr = cur;
 			cur = cur.next;
+			hop();
 			p++;
 			return o;
 		}
@@ -453,6 +724,105 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		return new It();
 	}
 
+	/**
+	 * Return an iterator which, unlike {@code iterator()}, never throws a
+	 * {@code ConcurrentModificationException}. It is anchored to the element
+	 * it last returned rather than to an index, so elements may be added or
+	 * removed anywhere in the list while it is in use. Elements removed before
+	 * the iterator reaches them are skipped, and elements added after its
+	 * position will be returned. If the element it is anchored to is removed,
+	 * the iterator carries on from that element's successor at the time of
+	 * removal; if the list is cleared, it carries on from the new head.
+	 *
+	 * This does not make the list thread-safe; modifications must still be
+	 * made by the thread using the iterator, or be externally synchronised.
+	 *
+	 * @return A position-stable iterator over the list, from the head.
+	 */
+	public Iterator<T> stableIterator() {
+		return new StableIt();
+	}
+
+	/**
+	 * Iterator which is anchored to an element rather than an index, and so
+	 * remains valid across modifications of the list.
+	 */
+	private class StableIt implements Iterator<T> {
+
+		/**
+		 * The element last returned by {@code next()}, or the dummy element if
+		 * none has been returned yet. The next element to return is found by
+		 * following its {@code next} field.
+		 */
+		private Elem<T> anchor = dummy;
+
+		/**
+		 * The element which may be removed by {@code remove()}, or null if
+		 * there is none.
+		 */
+		private Elem<T> lr = null;
+
+		/**
+		 * Find the next element still in the list after the anchor.
+		 *
+		 * @return The next element, or the dummy if there are no more.
+		 */
+		private Elem<T> following() {
+			Elem<T> e = anchor.next;
+			while (e != dummy && (e == null || e.prev == null)) {
+				// Skip elements removed since being linked to, going back to
+				// the head if they were removed by clear()
+				e = e == null ? dummy.next : e.next;
+				hop();
+			}
+			return e;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			return following() != dummy;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public T next() {
+			Elem<T> e = following();
+			if (e == dummy) {
+				throw new NoSuchElementException();
+			}
+			anchor = e;
+			lr = e;
+			hop();
+			return e.content;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			if (lr == null) {
+				throw new IllegalStateException();
+			}
+			if (lr.prev != null) { // Not already removed by someone else
+				unlink(lr);
+				modCount++;
+			}
+			lr = null;
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -462,8 +832,9 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	public T[] toArray() {
 		@SuppressWarnings("unchecked")
 		T[] r = (T[]) new Object[size];
-		Elem e = dummy.next;
+		Elem<T> e = dummy.next;
 		for (int i = 0; i < size; i++, e = e.next) {
+			hop();
 			r[i] = e.content;
 		}
 		return r;
@@ -498,12 +869,15 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	 */
 	@Override
 	public boolean add(T o) {
-		Elem e = new Elem(o);
+		Elem<T> e = elem(o, dummy, dummy);
 		dummy.prev.next = e;
 		e.prev = dummy.prev;
 		dummy.prev = e;
 		size++;
 		modCount++;
+		if (autoDefragment > 0 && churn > autoDefragment * size && !handles) {
+			relocate();
+		}
 		return true;
 	}
 
@@ -515,23 +889,19 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	@Override
 	public boolean remove(Object o) {
 		if (o == null) {
-			for (Elem e = dummy.next; e != dummy; e = e.next) {
+			for (Elem<T> e = dummy.next; e != dummy; e = e.next) {
+				hop();
 				if (e.content == null) {
-					e.prev.next = e.next;
-					e.next.prev = e.prev;
-					e = null;
-					size--;
+					unlink(e);
 					modCount++;
 					return true;
 				}
 			}
 		} else {
-			for (Elem e = dummy.next; e != dummy; e = e.next) {
+			for (Elem<T> e = dummy.next; e != dummy; e = e.next) {
+				hop();
 				if (o.equals(e.content)) {
-					e.prev.next = e.next;
-					e.next.prev = e.prev;
-					e = null;
-					size--;
+					unlink(e);
 					modCount++;
 					return true;
 				}
@@ -551,7 +921,8 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		if (c.size() == 0) {
 			return true;
 		}
-		for (Elem e = dummy.next; e != dummy; e = e.next) {
+		for (Elem<T> e = dummy.next; e != dummy; e = e.next) {
+			hop();
 			if (!c.contains(e.content)) {
 				return false;
 			}
@@ -586,14 +957,16 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 			throw new IndexOutOfBoundsException();
 		}
 		int sz = size;
-		Elem e = dummy.next;
+		Elem<T> e = dummy.next;
 
 		// Get the element referencer (e) to the correct location first
-		for (int cn = 0; cn < index; cn++, e = e.next) {}
+		for (int cn = 0; cn < index; cn++, e = e.next) {
+			hop();
+		}
 
 		// Now iterate through all the given collection's elements and add them
 		for (Iterator<? extends T> it = c.iterator(); it.hasNext();) {
-			Elem a = new Elem(it.next());
+			Elem<T> a = elem(it.next(), dummy, dummy);
 			e.prev.next = a;
 			a.prev = e.prev;
 			e.prev = a;
@@ -602,6 +975,9 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 			size++;
 			modCount++;
 		}
+		if (e != dummy && sz != size) {
+			churn++;
+		}
 		return sz != size;
 	}
 
@@ -643,11 +1019,10 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	private boolean compareRemove(Collection<?> c, boolean mod) {
 		Objects.requireNonNull(c);
 		int sz = size;
-		for (Elem e = dummy.next; e != dummy; e = e.next) {
+		for (Elem<T> e = dummy.next; e != dummy; e = e.next) {
+			hop();
 			if (c.contains(e.content) == mod) {
-				e.prev.next = e.next;
-				e.next.prev = e.prev;
-				size--;
+				unlink(e);
 				modCount++;
 			}
 		}
@@ -661,29 +1036,336 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	 */
 	@Override
 	public void clear() {
+		for (Elem<T> e = dummy.next, n; e != dummy; e = n) {
+			hop();
+			n = e.next;
+			e.prev = null; // Mark as removed for handles
+			e.next = null; // Tell stable iterators to restart from the head
+		}
 		dummy.next = dummy;
 		dummy.prev = dummy;
 		size = 0;
 		modCount++;
+		checkpoints = null;
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see java.util.List#get(int)
+	/**
+	 * Remove the given element from the list, and mark it as removed by
+	 * clearing its {@code prev} field. Its {@code next} field is left pointing
+	 * to its successor at the time of removal, so that stable iterators
+	 * positioned on it can still find their way back into the list.
+	 *
+	 * @param e
+	 *            The element to remove, which must currently be in the list.
 	 */
-	@Override
-	public T get(int index) {
-		assertIndex(index);
-		if (index < size / 2) {
-			Elem e = dummy.next;
-			for (int i = 0; i < index; i++, e = e.next) {}
-			return e.content;
-		} else {
-			Elem e = dummy.prev;
-			for (int i = size - 1; i > index; e = e.prev, i--) {}
-			return e.content;
+	private void unlink(Elem<T> e) {
+		if (e.prev != dummy) {
+			churn++;
+		}
+		e.prev.next = e.next;
+		e.next.prev = e.prev;
+		e.prev = null;
+		size--;
+	}
+
+	/**
+	 * Insert a new element holding the given object before the given element.
+	 *
+	 * @param o
+	 *            The object to insert.
+	 * @param before
+	 *            The element to insert before, which may be the dummy to append.
+	 * @return The new element.
+	 */
+	private Owned<T> link(T o, Elem<T> before) {
+		handles = true;
+		if (before != dummy) {
+			churn++;
+		}
+		if (metrics != null) {
+			metrics.allocated();
+		}
+		Owned<T> e = new Owned<>(o, before, before.prev, this);
+		before.prev.next = e;
+		before.prev = e;
+		size++;
+		modCount++;
+		return e;
+	}
+
+	/**
+	 * Check that the given handle refers to an element currently in this list,
+	 * in constant time.
+	 *
+	 * @param h
+	 *            The handle to check.
+	 * @return The element the handle refers to.
+	 * @throws IllegalArgumentException
+	 *             If the handle belongs to another list or has been removed.
+	 */
+	private Elem<T> element(Handle<T> h) {
+		Objects.requireNonNull(h);
+		Elem<T> e;
+		DLList<T> l;
+		if (h instanceof Ref) {
+			e = ((Ref<T>) h).elem;
+			l = ((Ref<T>) h).list;
+		} else if (h instanceof Owned && !(h instanceof Sentinel)) {
+			e = (Owned<T>) h;
+			l = ((Owned<T>) h).list;
+		} else {
+			throw new IllegalArgumentException("Not a handle of this list");
+		}
+		if (l != this) {
+			throw new IllegalArgumentException("Not a handle of this list");
+		}
+		if (e.prev == null) {
+			throw new IllegalArgumentException("Element has been removed");
+		}
+		return e;
+	}
+
+	/**
+	 * Append an element to the end of the list, returning a handle to it.
+	 *
+	 * @param o
+	 *            The element to add.
+	 * @return A handle which can later be used to remove or move the element
+	 *         in constant time.
+	 */
+	public Handle<T> addAndGetHandle(T o) {
+		return link(o, dummy);
+	}
+
+	/**
+	 * Insert an element immediately before the one referred to by a handle.
+	 *
+	 * @param h
+	 *            Handle of an element in this list.
+	 * @param o
+	 *            The element to insert.
+	 * @return A handle to the inserted element.
+	 * @throws IllegalArgumentException
+	 *             If the handle is not of an element in this list.
+	 */
+	public Handle<T> insertBefore(Handle<T> h, T o) {
+		return link(o, element(h));
+	}
+
+	/**
+	 * Insert an element immediately after the one referred to by a handle.
+	 *
+	 * @param h
+	 *            Handle of an element in this list.
+	 * @param o
+	 *            The element to insert.
+	 * @return A handle to the inserted element.
+	 * @throws IllegalArgumentException
+	 *             If the handle is not of an element in this list.
+	 */
+	public Handle<T> insertAfter(Handle<T> h, T o) {
+		return link(o, element(h).next);
+	}
+
+	/**
+	 * Remove the element referred to by a handle. The handle is no longer
+	 * linked afterwards.
+	 *
+	 * @param h
+	 *            Handle of an element in this list.
+	 * @return The element removed.
+	 * @throws IllegalArgumentException
+	 *             If the handle is not of an element in this list.
+	 */
+	public T remove(Handle<T> h) {
+		Elem<T> e = element(h);
+		unlink(e);
+		modCount++;
+		return e.content;
+	}
+
+	/**
+	 * Move the element referred to by a handle to the front of the list. The
+	 * handle remains valid.
+	 *
+	 * @param h
+	 *            Handle of an element in this list.
+	 * @throws IllegalArgumentException
+	 *             If the handle is not of an element in this list.
+	 */
+	public void moveToFront(Handle<T> h) {
+		move(element(h), dummy.next);
+	}
+
+	/**
+	 * Move the element referred to by a handle to the back of the list. The
+	 * handle remains valid.
+	 *
+	 * @param h
+	 *            Handle of an element in this list.
+	 * @throws IllegalArgumentException
+	 *             If the handle is not of an element in this list.
+	 */
+	public void moveToBack(Handle<T> h) {
+		move(element(h), dummy);
+	}
+
+	/**
+	 * Relink an element so that it is immediately before another.
+	 *
+	 * @param e
+	 *            The element to move.
+	 * @param before
+	 *            The element to place it before.
+	 */
+	private void move(Elem<T> e, Elem<T> before) {
+		if (e == before || e.next == before) {
+			return; // Already in place
+		}
+		e.prev.next = e.next;
+		e.next.prev = e.prev;
+		e.next = before;
+		e.prev = before.prev;
+		before.prev.next = e;
+		before.prev = e;
+		modCount++;
+	}
+
+	/**
+	 * @return A handle to the first element, or null if the list is empty.
+	 */
+	public Handle<T> firstHandle() {
+		handles = true;
+		return size == 0 ? null : handle(this, dummy.next);
+	}
+
+	/**
+	 * @return A handle to the last element, or null if the list is empty.
+	 */
+	public Handle<T> lastHandle() {
+		handles = true;
+		return size == 0 ? null : handle(this, dummy.prev);
+	}
+
+	/**
+	 * Replace every element of the list with a new one, allocated in the order
+	 * of the list. After many insertions and removals in the middle of a long
+	 * lived list, neighbouring elements can be far apart in memory, so that
+	 * walking the list misses the cache at every step; since the garbage
+	 * collector keeps objects in the order they were allocated, defragmenting
+	 * puts neighbours next to each other again.
+	 *
+	 * Iterators other than stable iterators are invalidated. Stable iterators
+	 * carry on from the new copy of the element they would have returned
+	 * next.
+	 *
+	 * @throws IllegalStateException
+	 *             If a handle has ever been taken from the list, since it
+	 *             would no longer refer to an element in the list.
+	 */
+	public void defragment() {
+		if (handles) {
+			throw new IllegalStateException("Cannot defragment a list whose handles have been taken");
+		}
+		relocate();
+	}
+
+	/**
+	 * Replace every element with a new one, as described by
+	 * {@code defragment}.
+	 * Kept separate so that {@code add} does not call an overridable method.
+	 */
+	private void relocate() {
+		Elem<T> last = dummy, old = null;
+		for (Elem<T> e = dummy.next, n; e != dummy; e = n) {
+			hop();
+			n = e.next;
+			Elem<T> c = elem(e.content, dummy, last);
+			last.next = c;
+			last = c;
+			if (old != null) {
+				old.next = c; // Stable iterators anchored on old go on to c
+			}
+			e.prev = null;
+			old = e;
+		}
+		if (old != null) {
+			old.next = dummy;
+		}
+		dummy.prev = last;
+		churn = 0;
+		modCount++;
+	}
+
+	/**
+	 * Defragment the list automatically, as part of {@code add}, once the
+	 * number of insertions and removals made away from the ends of the list
+	 * since it was last defragmented exceeds the given multiple of its size.
+	 * Since defragmenting takes time proportional to the size, this adds a
+	 * constant amortised cost to each of those changes. Automatic
+	 * defragmenting does exactly what {@code defragment()} does, except that
+	 * a list from which handles have been taken is left as it is rather than
+	 * failing the {@code add}.
+	 *
+	 * @param factor
+	 *            The multiple of the size, or zero to stop defragmenting
+	 *            automatically.
+	 */
+	public void setAutoDefragment(double factor) {
+		if (!(factor >= 0)) {
+			throw new IllegalArgumentException("Factor must not be negative");
+		}
+		autoDefragment = factor;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.List#get(int)
+	 */
+	@Override
+	public T get(int index) {
+		assertIndex(index);
+		DLListMetrics m = metrics;
+		long start = m == null ? 0 : System.nanoTime();
+		Elem<T> e = node(index);
+		if (m != null) {
+			m.record(DLListMetrics.Op.GET, distance(index), size, start);
+		}
+		return e.content;
+	}
+
+	/**
+	 * Find the element at the given index, walking from whichever end of the
+	 * list is nearer.
+	 *
+	 * @param index
+	 *            Index of an element in the list.
+	 * @return The element.
+	 */
+	private Elem<T> node(int index) {
+		Elem<T> e;
+		if (index < size / 2) {
+			e = dummy.next;
+			for (int i = 0; i < index; i++, e = e.next) {
+				hop();
+			}
+		} else {
+			e = dummy.prev;
+			for (int i = size - 1; i > index; e = e.prev, i--) {
+				hop();
+			}
 		}
+		return e;
+	}
+
+	/**
+	 * @param index
+	 *            Index of an element in the list.
+	 * @return The number of steps {@code node} takes to reach it.
+	 */
+	private int distance(int index) {
+		return index < size / 2 ? index : size - 1 - index;
 	}
 
 	/*
@@ -694,15 +1376,15 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	@Override
 	public T set(int index, T element) {
 		assertIndex(index);
-		int c = 0;
-		Elem t = dummy.next;
-		while (c < index) {
-			t = t.next;
-			c++;
-		}
+		DLListMetrics m = metrics;
+		long start = m == null ? 0 : System.nanoTime();
+		Elem<T> t = node(index);
 		T elem = t.content;
 		t.content = element;
 		modCount++;
+		if (m != null) {
+			m.record(DLListMetrics.Op.SET, distance(index), size, start);
+		}
 		return elem;
 	}
 
@@ -714,17 +1396,21 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	@Override
 	public void add(int index, T element) {
 		assertIndex(index);
-		Elem n = new Elem(element, null, null);
-		Elem a = dummy.next;
-		for (int i = 0; i < index; i++) {
-			a = a.next;
-		}
+		DLListMetrics m = metrics;
+		long start = m == null ? 0 : System.nanoTime();
+		Elem<T> n = elem(element, null, null);
+		churn++;
+		int walked = distance(index);
+		Elem<T> a = node(index);
 		n.prev = a.prev;
 		a.prev.next = n;
 		a.prev = n;
 		n.next = a;
 		size++;
 		modCount++;
+		if (m != null) {
+			m.record(DLListMetrics.Op.ADD, walked, size, start);
+		}
 	}
 
 	/*
@@ -735,17 +1421,16 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	@Override
 	public T remove(int index) {
 		assertIndex(index);
-		Elem a = dummy.next;
-		for (int i = 0; i < index; i++) {
-			a = a.next;
-		}
-		a.prev.next = a.next;
-		a.next.prev = a.prev;
-		T o = a.content;
-		a = null;
-		size--;
+		DLListMetrics m = metrics;
+		long start = m == null ? 0 : System.nanoTime();
+		int walked = distance(index);
+		Elem<T> a = node(index);
+		unlink(a);
 		modCount++;
-		return o;
+		if (m != null) {
+			m.record(DLListMetrics.Op.REMOVE, walked, size, start);
+		}
+		return a.content;
 	}
 
 	/**
@@ -771,21 +1456,22 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	 */
 	@Override
 	public int indexOf(Object o) {
+		DLListMetrics m = metrics;
+		long start = m == null ? 0 : System.nanoTime();
 		int c = 0;
 		if (o == null) {
-			for (Elem a = dummy.next; a != dummy; a = a.next, c++) {
-				if (a.content == null) {
-					return c;
-				}
+			for (Elem<T> a = dummy.next; a != dummy && a.content != null; a = a.next, c++) {
+				hop();
 			}
 		} else {
-			for (Elem a = dummy.next; a != dummy; a = a.next, c++) {
-				if (o.equals(a.content)) {
-					return c;
-				}
+			for (Elem<T> a = dummy.next; a != dummy && !o.equals(a.content); a = a.next, c++) {
+				hop();
 			}
 		}
-		return -1;
+		if (m != null) {
+			m.record(DLListMetrics.Op.INDEX_OF, c, size, start);
+		}
+		return c == size ? -1 : c;
 	}
 
 	/*
@@ -795,35 +1481,474 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	 */
 	@Override
 	public int lastIndexOf(Object o) {
-		int c = 0, ret = -1;
+		DLListMetrics m = metrics;
+		long start = m == null ? 0 : System.nanoTime();
+		int c = size - 1;
 		if (o == null) {
-			for (Elem a = dummy.next; a != dummy; a = a.next, c++) {
-				if (a.content == null) {
-					ret = c;
-				}
+			for (Elem<T> a = dummy.prev; a != dummy && a.content != null; a = a.prev, c--) {
+				hop();
+			}
+		} else {
+			for (Elem<T> a = dummy.prev; a != dummy && !o.equals(a.content); a = a.prev, c--) {
+				hop();
+			}
+		}
+		if (m != null) {
+			m.record(DLListMetrics.Op.LAST_INDEX_OF, size - 1 - c, size, start);
+		}
+		return c;
+	}
+
+	/**
+	 * References to every {@code stride}th element of a list, in order,
+	 * splitting it into segments which can be searched in parallel. Only valid
+	 * while the list is not modified. The fields are final so that the array
+	 * is safely visible to every thread which reads the holder.
+	 *
+	 * @param <T>
+	 *            Type of object stored in the list.
+	 */
+	private static final class Checkpoints<T> {
+
+		/**
+		 * The first element of each segment.
+		 */
+		private final Elem<T>[] at;
+
+		/**
+		 * Number of elements in each segment but the last.
+		 */
+		private final int stride;
+
+		/**
+		 * Modification count of the list when the checkpoints were taken.
+		 */
+		private final int mod;
+
+		/**
+		 * Initialise the checkpoints.
+		 *
+		 * @param at
+		 *            The first element of each segment.
+		 * @param stride
+		 *            Number of elements in each segment but the last.
+		 * @param mod
+		 *            Modification count of the list.
+		 */
+		private Checkpoints(Elem<T>[] at, int stride, int mod) {
+			this.at = at;
+			this.stride = stride;
+			this.mod = mod;
+		}
+	}
+
+	/**
+	 * Return checkpoints splitting the list into segments, walking the list
+	 * to take new ones if it has been modified since they were last taken.
+	 *
+	 * @return The checkpoints.
+	 */
+	private Checkpoints<T> checkpoints() {
+		Checkpoints<T> cp = checkpoints;
+		if (cp != null && cp.mod == modCount) {
+			return cp;
+		}
+		int stride = Math.max(MIN_SEGMENT, size / (4 * ForkJoinPool.getCommonPoolParallelism()) + 1);
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Elem<T>[] at = new Elem[(size + stride - 1) / stride];
+		Elem<T> e = dummy.next;
+		for (int i = 0; i < size; i++, e = e.next) {
+			hop();
+			if (i % stride == 0) {
+				at[i / stride] = e;
 			}
+		}
+		cp = new Checkpoints<>(at, stride, modCount);
+		checkpoints = cp;
+		return cp;
+	}
+
+	/**
+	 * Search for an element, searching separate segments of the list in
+	 * parallel on the common {@code ForkJoinPool}. A segment stops being
+	 * searched as soon as a match has been found in a segment which comes
+	 * before it.
+	 *
+	 * The list must not be modified during the search. Repeated searches of
+	 * an unchanged list reuse the same division into segments; otherwise it
+	 * costs one walk along the list, so this only pays off for long lists or
+	 * costly {@code equals} methods.
+	 *
+	 * @param o
+	 *            The element to search for.
+	 * @return The same result as {@code indexOf(o)}.
+	 * @throws ConcurrentModificationException
+	 *             If the list was modified during the search.
+	 */
+	public int parallelIndexOf(Object o) {
+		return search(o, false);
+	}
+
+	/**
+	 * Search for the last occurrence of an element, searching separate
+	 * segments of the list backwards in parallel, as described by
+	 * {@code parallelIndexOf}.
+	 *
+	 * @param o
+	 *            The element to search for.
+	 * @return The same result as {@code lastIndexOf(o)}.
+	 * @throws ConcurrentModificationException
+	 *             If the list was modified during the search.
+	 */
+	public int parallelLastIndexOf(Object o) {
+		return search(o, true);
+	}
+
+	/**
+	 * Check for an element, searching separate segments of the list in
+	 * parallel, as described by {@code parallelIndexOf}.
+	 *
+	 * @param o
+	 *            The element to search for.
+	 * @return The same result as {@code contains(o)}.
+	 * @throws ConcurrentModificationException
+	 *             If the list was modified during the search.
+	 */
+	public boolean parallelContains(Object o) {
+		return search(o, false) >= 0;
+	}
+
+	/**
+	 * Divide the list into segments: at checkpoints if it is long enough to
+	 * be worth working on in parallel, otherwise as one segment.
+	 *
+	 * @return The first element of each segment.
+	 */
+	private Checkpoints<T> segments() {
+		if (size >= PARALLEL_THRESHOLD) {
+			return checkpoints();
+		}
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Elem<T>[] at = new Elem[] { dummy.next };
+		return new Checkpoints<>(at, Math.max(size, 1), modCount);
+	}
+
+	/**
+	 * @param cp
+	 *            Checkpoints dividing the list.
+	 * @param i
+	 *            Index of a segment.
+	 * @return The number of elements in the segment.
+	 */
+	private int length(Checkpoints<T> cp, int i) {
+		return Math.min(cp.stride, size - i * cp.stride);
+	}
+
+	/**
+	 * Run a task for every segment, on the common {@code ForkJoinPool} if
+	 * there is more than one, and wait for them all to finish. An exception
+	 * thrown by any of them is thrown again here.
+	 *
+	 * @param cp
+	 *            Checkpoints dividing the list.
+	 * @param task
+	 *            Receives the index of each segment.
+	 */
+	private static void inParallel(Checkpoints<?> cp, IntConsumer task) {
+		if (cp.at.length == 1) {
+			task.accept(0);
 		} else {
-			for (Elem a = dummy.next; a != dummy; a = a.next, c++) {
-				if (o.equals(a.content)) {
-					ret = c;
+			ForkJoinPool.commonPool().invoke(new Split(task, 0, cp.at.length));
+		}
+	}
+
+	/**
+	 * Task running another task for a range of segments, splitting the range
+	 * in two until only one segment is left.
+	 */
+	private static final class Split extends RecursiveAction {
+
+		/**
+		 * Generated {@code serialVersionUID}
+		 */
+		private static final long serialVersionUID = 5349872617470134126L;
+
+		/**
+		 * The task to run for each segment.
+		 */
+		private final IntConsumer task;
+
+		/**
+		 * The first segment.
+		 */
+		private final int lo;
+
+		/**
+		 * One after the last segment.
+		 */
+		private final int hi;
+
+		/**
+		 * Initialise a task.
+		 *
+		 * @param task
+		 *            The task to run for each segment.
+		 * @param lo
+		 *            The first segment.
+		 * @param hi
+		 *            One after the last segment.
+		 */
+		private Split(IntConsumer task, int lo, int hi) {
+			this.task = task;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			if (hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Split(task, lo, mid), new Split(task, mid, hi));
+			} else {
+				task.accept(lo);
+			}
+		}
+	}
+
+	/**
+	 * Search every segment of the list in parallel. A segment stops being
+	 * searched once a better match has been found in another.
+	 *
+	 * @param o
+	 *            The element to search for.
+	 * @param last
+	 *            True to find the last occurrence, false for the first.
+	 * @return The index found, or -1.
+	 */
+	private int search(Object o, boolean last) {
+		if (size == 0) {
+			return -1;
+		}
+		int mod = modCount;
+		Checkpoints<T> cp = segments();
+		AtomicInteger found = new AtomicInteger(last ? -1 : Integer.MAX_VALUE);
+		inParallel(cp, seg -> {
+			int start = seg * cp.stride;
+			int n = length(cp, seg);
+			if (last) {
+				Elem<T> e = seg + 1 < cp.at.length ? cp.at[seg + 1].prev : dummy.prev;
+				for (int i = start + n - 1; i >= start; i--, e = e.prev) {
+					hop();
+					if (o == null ? e.content == null : o.equals(e.content)) {
+						found.accumulateAndGet(i, Math::max);
+						return;
+					}
+					if ((i & 1023) == 0 && found.get() > i) {
+						return;
+					}
+				}
+			} else {
+				Elem<T> e = cp.at[seg];
+				for (int i = start; i < start + n; i++, e = e.next) {
+					hop();
+					if (o == null ? e.content == null : o.equals(e.content)) {
+						found.accumulateAndGet(i, Math::min);
+						return;
+					}
+					if ((i & 1023) == 0 && found.get() < i) {
+						return;
+					}
 				}
 			}
+		});
+		if (mod != modCount) {
+			throw new ConcurrentModificationException();
 		}
-		return ret;
+		int r = found.get();
+		return r == Integer.MAX_VALUE ? -1 : r;
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see java.util.List#listIterator(int)
+	/**
+	 * Perform an action on every element, working on separate segments of
+	 * the list in parallel. The action is called from several threads at
+	 * once, in no particular order, so must be thread-safe.
+	 *
+	 * @param action
+	 *            The action to perform.
+	 * @throws ConcurrentModificationException
+	 *             If the list is modified while the action is being performed.
+	 */
+	public void parallelForEach(Consumer<? super T> action) {
+		Objects.requireNonNull(action);
+		int mod = modCount;
+		Checkpoints<T> cp = segments();
+		inParallel(cp, seg -> {
+			Elem<T> e = cp.at[seg];
+			for (int i = 0, n = length(cp, seg); i < n; i++, e = e.next) {
+				hop();
+				if ((i & 1023) == 0 && mod != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				action.accept(e.content);
+			}
+		});
+		if (mod != modCount) {
+			throw new ConcurrentModificationException();
+		}
+	}
+
+	/**
+	 * Replace every element with the result of applying an operator to it,
+	 * working on separate segments of the list in parallel. The operator is
+	 * called from several threads at once, so must be thread-safe. If it
+	 * throws an exception, some of the elements may already have been
+	 * replaced.
+	 *
+	 * @param operator
+	 *            The operator to apply.
+	 * @throws ConcurrentModificationException
+	 *             If the list is modified while the operator is being applied.
+	 */
+	public void parallelReplaceAll(UnaryOperator<T> operator) {
+		Objects.requireNonNull(operator);
+		int mod = modCount;
+		Checkpoints<T> cp = segments();
+		inParallel(cp, seg -> {
+			Elem<T> e = cp.at[seg];
+			for (int i = 0, n = length(cp, seg); i < n; i++, e = e.next) {
+				hop();
+				if ((i & 1023) == 0 && mod != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				e.content = operator.apply(e.content);
+			}
+		});
+		if (mod != modCount) {
+			throw new ConcurrentModificationException();
+		}
+		modCount++;
+	}
+
+	/**
+	 * Remove every element which satisfies a predicate, working on separate
+	 * segments of the list in parallel.
+	 *
+	 * The predicate is first tested on every element, from several threads at
+	 * once, so must be thread-safe; if it throws an exception the list is left
+	 * unchanged. Each segment then links its surviving elements together, and
+	 * finally the segments are joined with one link per boundary.
+	 *
+	 * @param filter
+	 *            The predicate selecting elements to remove.
+	 * @return True if any elements were removed.
+	 * @throws ConcurrentModificationException
+	 *             If the list is modified while the predicate is being tested.
+	 */
+	public boolean parallelRemoveIf(Predicate<? super T> filter) {
+		Objects.requireNonNull(filter);
+		if (size == 0) {
+			return false;
+		}
+		int mod = modCount;
+		Checkpoints<T> cp = segments();
+		boolean[][] remove = new boolean[cp.at.length][];
+		inParallel(cp, seg -> {
+			int n = length(cp, seg);
+			boolean[] r = new boolean[n];
+			Elem<T> e = cp.at[seg];
+			for (int i = 0; i < n; i++, e = e.next) {
+				hop();
+				if ((i & 1023) == 0 && mod != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				r[i] = filter.test(e.content);
+			}
+			remove[seg] = r;
+		});
+		if (mod != modCount) {
+			throw new ConcurrentModificationException();
+		}
+
+		// Link the survivors of each segment, remembering the first and last
+		Elem<T>[] first = Arrays.copyOf(cp.at, cp.at.length);
+		Elem<T>[] last = Arrays.copyOf(cp.at, cp.at.length);
+		int[] removed = new int[cp.at.length];
+		inParallel(cp, seg -> {
+			boolean[] r = remove[seg];
+			Elem<T> f = null, l = null;
+			Elem<T> e = cp.at[seg];
+			for (int i = 0; i < r.length; i++, e = e.next) {
+				hop();
+				if (r[i]) {
+					e.prev = null; // Mark as removed, leaving next for stable iterators
+					removed[seg]++;
+				} else if (f == null) {
+					f = l = e;
+				} else {
+					l.next = e;
+					e.prev = l;
+					l = e;
+				}
+			}
+			first[seg] = f;
+			last[seg] = l;
+		});
+
+		// Join the segments
+		Elem<T> l = dummy;
+		int total = 0;
+		for (int seg = 0; seg < cp.at.length; seg++) {
+			total += removed[seg];
+			if (first[seg] != null) {
+				l.next = first[seg];
+				first[seg].prev = l;
+				l = last[seg];
+			}
+		}
+		l.next = dummy;
+		dummy.prev = l;
+		if (total == 0) {
+			return false;
+		}
+		size -= total;
+		churn += total;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Return a list iterator positioned at the given index, reached by
+	 * walking from the nearer end of the list, so that the steps taken are
+	 * bounded by the distance from that end.
+	 *
+	 * @param index
+	 *            Index of the first element to be returned by {@code next()},
+	 *            from 0 to the size.
+	 * @return The list iterator.
 	 */
 	@Override
 	public ListIterator<T> listIterator(int index) {
 		if (index < 0 || index > size) {
 			throw new IndexOutOfBoundsException();
 		}
-		ListIterator<T> it = listIterator();
-		for (int i = 0; i < index; i++, it.next()) {}
+		DLListMetrics m = metrics;
+		long start = m == null ? 0 : System.nanoTime();
+		It it = new It();
+		if (index < size) {
+			it.cur = node(index);
+			it.p = index;
+		} else {
+			it.cur = dummy;
+			it.p = size;
+		}
+		if (m != null) {
+			m.record(DLListMetrics.Op.LIST_ITERATOR, index < size ? distance(index) : 0, size, start);
+		}
 		return it;
 	}
 
@@ -840,13 +1965,15 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 			throw new IllegalArgumentException();
 		}
 		List<T> l = new DLList<>();
-		Elem e = dummy.next;
+		Elem<T> e = dummy.next;
 		for (int i = 0; i < fromIndex; i++) {
 			e = e.next;
+			hop();
 		}
 		for (int i = fromIndex; i < toIndex; i++) {
 			l.add(e.content);
 			e = e.next;
+			hop();
 		}
 		return l;
 	}
@@ -908,6 +2035,239 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 									// dummy's content which is null
 	}
 
+	/**
+	 * Remove up to {@code max} elements from the head of the list, adding them
+	 * to the given collection in order. The removed elements are detached from
+	 * the list with a single relink, rather than being unlinked one at a time.
+	 * If adding an element to the collection fails, the elements added before
+	 * it are still removed from the list, and it and the rest are left in
+	 * place.
+	 *
+	 * @param c
+	 *            The collection to add the removed elements to. Must not be
+	 *            this list.
+	 * @param max
+	 *            The maximum number of elements to remove.
+	 * @return The number of elements removed.
+	 */
+	public int drainTo(Collection<? super T> c, int max) {
+		Objects.requireNonNull(c);
+		if (c == this) {
+			throw new IllegalArgumentException();
+		}
+		int n = Math.min(Math.max(max, 0), size);
+		if (n == 0) {
+			return 0;
+		}
+		Elem<T> first = dummy.next, e = first;
+		int i = 0;
+		try {
+			for (; i < n; i++, e = e.next) {
+				hop();
+				c.add(e.content);
+			}
+		} finally {
+			if (i > 0) {
+				// Detach the elements which were added, then mark them as
+				// removed for stable iterators
+				dummy.next = e;
+				e.prev = dummy;
+				size -= i;
+				modCount++;
+				for (Elem<T> r = first; r != e; r = r.next) {
+					hop();
+					r.prev = null;
+				}
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Remove every element from the list, adding them to the given collection
+	 * in order.
+	 *
+	 * @param c
+	 *            The collection to add the removed elements to. Must not be
+	 *            this list.
+	 * @return The number of elements removed.
+	 */
+	public int drainTo(Collection<? super T> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Remove up to {@code n} elements from the head of the list.
+	 *
+	 * @param n
+	 *            The maximum number of elements to remove.
+	 * @return The removed elements, in order. Empty if the list is empty.
+	 */
+	public List<T> pollBatch(int n) {
+		List<T> r = new ArrayList<>(Math.min(Math.max(n, 0), size));
+		drainTo(r, n);
+		return r;
+	}
+
+	/**
+	 * Add every element of the given collection to the tail of the list. The
+	 * new elements are first linked to each other, and the resulting chain is
+	 * then attached to the list in one step.
+	 *
+	 * @param c
+	 *            The elements to add.
+	 * @return True if the list changed as a result of the call.
+	 */
+	public boolean offerAll(Collection<? extends T> c) {
+		Objects.requireNonNull(c);
+		Chain ch = new Chain();
+		for (T o : c) {
+			ch.add(o);
+		}
+		return splice(ch);
+	}
+
+	/**
+	 * A chain of elements built separately from the list, which can later be
+	 * attached to the tail of the list in constant time by {@code splice}.
+	 * Building a chain does not touch the list itself, so separate chains may
+	 * be built by separate threads while the list is in use.
+	 */
+	protected class Chain {
+
+		/**
+		 * First element of the chain, or null if the chain is empty.
+		 */
+		private Elem<T> head;
+
+		/**
+		 * Last element of the chain, or null if the chain is empty.
+		 */
+		private Elem<T> tail;
+
+		/**
+		 * Number of elements in the chain.
+		 */
+		private int size;
+
+		/**
+		 * Append an element to the chain.
+		 *
+		 * @param o
+		 *            The element to append.
+		 */
+		public void add(T o) {
+			Elem<T> a = elem(o, dummy, tail);
+			if (tail == null) {
+				head = a;
+			} else {
+				tail.next = a;
+			}
+			tail = a;
+			size++;
+		}
+
+		/**
+		 * @return The number of elements in the chain.
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * @return The list which created this chain.
+		 */
+		private DLList<T> list() {
+			return DLList.this;
+		}
+	}
+
+	/**
+	 * Attach all the elements of the given chain to the tail of the list, in
+	 * constant time. The chain is left empty and may be reused.
+	 *
+	 * @param c
+	 *            The chain to attach. Must have been created by this list.
+	 * @return True if the list changed as a result of the call.
+	 */
+	protected boolean splice(Chain c) {
+		if (c.list() != this) {
+			throw new IllegalArgumentException();
+		}
+		if (c.size == 0) {
+			return false;
+		}
+		c.head.prev = dummy.prev;
+		dummy.prev.next = c.head;
+		dummy.prev = c.tail;
+		size += c.size;
+		modCount++;
+		c.head = null;
+		c.tail = null;
+		c.size = 0;
+		return true;
+	}
+
+	/**
+	 * Count a step from one element to another, if steps are being counted.
+	 */
+	private static void hop() {
+		if (countHops) {
+			hops.increment();
+		}
+	}
+
+	/**
+	 * Start or stop counting the steps taken between elements by all lists.
+	 *
+	 * @param on
+	 *            True to count steps.
+	 */
+	static void countHops(boolean on) {
+		countHops = on;
+	}
+
+	/**
+	 * @return The number of steps taken between elements by all lists while
+	 *         they were being counted.
+	 */
+	static long hops() {
+		return hops.sum();
+	}
+
+	/**
+	 * Start collecting metrics for this list, if not already doing so. Until
+	 * this is called, the instrumented operations only check that metrics are
+	 * disabled.
+	 *
+	 * @return The metrics of the list.
+	 */
+	public DLListMetrics enableMetrics() {
+		if (metrics == null) {
+			metrics = new DLListMetrics(DEFAULT_TRAVERSAL_THRESHOLD);
+		}
+		return metrics;
+	}
+
+	/**
+	 * Stop collecting metrics for this list, removing them from JMX if they
+	 * were registered.
+	 */
+	public void disableMetrics() {
+		DLListMetrics m = metrics;
+		if (m != null) {
+			metrics = null;
+			m.unregister();
+		}
+	}
+
+	/**
+	 * @return The metrics of this list, or null if they are not enabled.
+	 */
+	public DLListMetrics getMetrics() {
+		return metrics;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -934,7 +2294,6 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + dummy.hashCode();
 		result = prime * result + modCount;
 		result = prime * result + size;
 		return result;
@@ -958,13 +2317,6 @@ public class DLList<T> implements List<T>, Queue<T>, Cloneable, Serializable {
 		}
 		@SuppressWarnings("rawtypes")
 		DLList other = (DLList) obj;
-		if (dummy == null) {
-			if (other.dummy != null) {
-				return false;
-			}
-		} else if (!dummy.equals(other.dummy)) {
-			return false;
-		}
 		if (modCount != other.modCount) {
 			return false;
 		}
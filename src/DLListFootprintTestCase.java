@@ -0,0 +1,122 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Checks the memory taken by each element of a {@code DLList}. The bytes
+ * allocated while appending to lists of growing sizes are measured, in child
+ * JVMs with and without compressed references, and compared with the layout
+ * of an object header and three references. Adding a field to the element
+ * class, or making it an inner class again, fails these tests.
+ */
+public class DLListFootprintTestCase {
+
+	static final int[] SIZES = { 1000, 10000, 100000 };
+
+	/**
+	 * The size of an element holding {@code content}, {@code next} and
+	 * {@code prev}, rounded up to the object alignment.
+	 */
+	static long expected(boolean compressedOops, boolean compressedClass, int align) {
+		int header = compressedClass ? 12 : 16;
+		int ref = compressedOops ? 4 : 8;
+		return (header + 3 * ref + align - 1) / align * align;
+	}
+
+	/**
+	 * The bytes allocated per element by appending {@code size} copies of the
+	 * same object to an empty list, or -1 if this JVM cannot measure it.
+	 */
+	static double measure(int size) {
+		ThreadMXBean t = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!t.isThreadAllocatedMemorySupported()) {
+			return -1;
+		}
+		long id = Thread.currentThread().getId();
+		Integer o = 1;
+		DLList<Integer> list = new DLList<>();
+		long before = t.getThreadAllocatedBytes(id);
+		for (int i = 0; i < size; i++) {
+			list.add(o);
+		}
+		return (double) (t.getThreadAllocatedBytes(id) - before) / size;
+	}
+
+	/**
+	 * Print the expected and measured bytes per element at each size, for the
+	 * settings of this JVM. Run by the tests in a child JVM.
+	 */
+	public static void main(String[] args) {
+		HotSpotDiagnosticMXBean hs = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+		long e = expected(Boolean.parseBoolean(hs.getVMOption("UseCompressedOops").getValue()),
+				Boolean.parseBoolean(hs.getVMOption("UseCompressedClassPointers").getValue()),
+				Integer.parseInt(hs.getVMOption("ObjectAlignmentInBytes").getValue()));
+		measure(SIZES[SIZES.length - 1]); // Warm up
+		for (int n : SIZES) {
+			System.out.println(n + " " + e + " " + measure(n));
+		}
+	}
+
+	/**
+	 * Run {@code main} in a child JVM with the given option, and check that
+	 * no size allocates more per element than expected.
+	 */
+	static void assertFootprint(String option) throws IOException, InterruptedException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		Process p = new ProcessBuilder(java, option, "-cp", System.getProperty("java.class.path"),
+				DLListFootprintTestCase.class.getName()).redirectErrorStream(true).start();
+		List<String> lines = new ArrayList<>();
+		try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+			for (String l; (l = r.readLine()) != null;) {
+				lines.add(l);
+			}
+		}
+		assertEquals(String.join("\n", lines), 0, p.waitFor());
+		assertEquals(String.join("\n", lines), SIZES.length, lines.size());
+		for (String l : lines) {
+			String[] f = l.split(" ");
+			long e = Long.parseLong(f[1]);
+			double m = Double.parseDouble(f[2]);
+			assertTrue(option + ": " + m + " bytes per element at size " + f[0] + ", expected at most " + e,
+					m <= e + 0.5); // Allow for growing the thread's buffers
+		}
+	}
+
+	@Test
+	public void testElementFields() throws ClassNotFoundException {
+		List<String> names = new ArrayList<>();
+		for (Field f : Class.forName("DLList$Elem").getDeclaredFields()) {
+			if (!Modifier.isStatic(f.getModifiers())) {
+				names.add(f.getName());
+			}
+		}
+		Collections.sort(names);
+		assertEquals("[content, next, prev]", names.toString());
+		assertTrue(Modifier.isStatic(Class.forName("DLList$Elem").getModifiers()));
+	}
+
+	@Test
+	public void testCompressedOops() throws IOException, InterruptedException {
+		assertFootprint("-XX:+UseCompressedOops");
+	}
+
+	@Test
+	public void testUncompressedOops() throws IOException, InterruptedException {
+		assertFootprint("-XX:-UseCompressedOops");
+	}
+}
@@ -0,0 +1,319 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters describing the work done by one {@code DLList}, collected once
+ * {@code DLList.enableMetrics()} has been called.
+ *
+ * For each operation which may walk along the list, the number of calls, the
+ * number of nodes walked over and a histogram of latencies are kept. The
+ * number of elements allocated and of concurrent modifications detected by
+ * iterators are also counted. When a single operation walks over more nodes
+ * than the traversal threshold, a {@code DLListTraversalEvent} is recorded
+ * for Java Flight Recorder. The counters may be published as an MXBean with
+ * {@code register}.
+ *
+ * Counters are updated with {@code LongAdder}s, so a list shared under some
+ * external lock does not contend on them.
+ *
+ * @author David Brown
+ */
+public class DLListMetrics implements DLListMetricsMXBean {
+
+	/**
+	 * Operations which may walk along the list.
+	 */
+	public enum Op {
+		GET, SET, ADD, REMOVE, INDEX_OF, LAST_INDEX_OF, LIST_ITERATOR
+	}
+
+	/**
+	 * Number of buckets in each latency histogram.
+	 */
+	private static final int BUCKETS = 40;
+
+	/**
+	 * Number of calls of each operation.
+	 */
+	private final LongAdder[] calls = adders(Op.values().length);
+
+	/**
+	 * Number of nodes walked over by each operation.
+	 */
+	private final LongAdder[] nodes = adders(Op.values().length);
+
+	/**
+	 * Latency histograms of each operation.
+	 */
+	private final LongAdder[][] latency = new LongAdder[Op.values().length][];
+
+	/**
+	 * Number of elements allocated.
+	 */
+	private final LongAdder allocations = new LongAdder();
+
+	/**
+	 * Number of concurrent modifications detected.
+	 */
+	private final LongAdder modifications = new LongAdder();
+
+	/**
+	 * Number of nodes an operation must walk over to record an event.
+	 */
+	private volatile int threshold;
+
+	/**
+	 * Name given when registered, or null.
+	 */
+	private volatile String name;
+
+	/**
+	 * Create a set of counters.
+	 *
+	 * @param threshold
+	 *            Number of nodes an operation must walk over to be recorded
+	 *            as a JFR event.
+	 */
+	DLListMetrics(int threshold) {
+		setTraversalThreshold(threshold);
+		for (int i = 0; i < latency.length; i++) {
+			latency[i] = adders(BUCKETS);
+		}
+	}
+
+	/**
+	 * @param n
+	 *            Number of adders.
+	 * @return An array of new adders.
+	 */
+	private static LongAdder[] adders(int n) {
+		LongAdder[] a = new LongAdder[n];
+		for (int i = 0; i < n; i++) {
+			a[i] = new LongAdder();
+		}
+		return a;
+	}
+
+	/**
+	 * Record a call of an operation.
+	 *
+	 * @param op
+	 *            The operation.
+	 * @param walked
+	 *            Number of nodes walked over.
+	 * @param size
+	 *            Size of the list.
+	 * @param start
+	 *            Value of {@code System.nanoTime()} when the call started.
+	 */
+	void record(Op op, int walked, int size, long start) {
+		long t = System.nanoTime() - start;
+		int i = op.ordinal();
+		calls[i].increment();
+		nodes[i].add(walked);
+		latency[i][Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(Math.max(t, 1)))].increment();
+		if (walked > threshold) {
+			DLListTraversalEvent e = new DLListTraversalEvent();
+			if (e.shouldCommit()) {
+				e.operation = op.name();
+				e.nodes = walked;
+				e.size = size;
+				e.list = name;
+				e.commit();
+			}
+		}
+	}
+
+	/**
+	 * Record the allocation of an element.
+	 */
+	void allocated() {
+		allocations.increment();
+	}
+
+	/**
+	 * Record a concurrent modification detected by an iterator.
+	 */
+	void concurrentModification() {
+		modifications.increment();
+	}
+
+	/**
+	 * @param op
+	 *            An operation.
+	 * @return Number of calls of the operation.
+	 */
+	public long getCount(Op op) {
+		return calls[op.ordinal()].sum();
+	}
+
+	/**
+	 * @param op
+	 *            An operation.
+	 * @return Number of nodes walked over by the operation.
+	 */
+	public long getNodes(Op op) {
+		return nodes[op.ordinal()].sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLListMetricsMXBean#getOperationCounts()
+	 */
+	@Override
+	public Map<String, Long> getOperationCounts() {
+		Map<String, Long> m = new LinkedHashMap<>();
+		for (Op op : Op.values()) {
+			m.put(op.name(), getCount(op));
+		}
+		return m;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLListMetricsMXBean#getNodesTraversed()
+	 */
+	@Override
+	public Map<String, Long> getNodesTraversed() {
+		Map<String, Long> m = new LinkedHashMap<>();
+		for (Op op : Op.values()) {
+			m.put(op.name(), getNodes(op));
+		}
+		return m;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLListMetricsMXBean#getAllocations()
+	 */
+	@Override
+	public long getAllocations() {
+		return allocations.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLListMetricsMXBean#getConcurrentModifications()
+	 */
+	@Override
+	public long getConcurrentModifications() {
+		return modifications.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLListMetricsMXBean#getTraversalThreshold()
+	 */
+	@Override
+	public int getTraversalThreshold() {
+		return threshold;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLListMetricsMXBean#setTraversalThreshold(int)
+	 */
+	@Override
+	public void setTraversalThreshold(int threshold) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException("Threshold must not be negative");
+		}
+		this.threshold = threshold;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLListMetricsMXBean#getLatencyHistogram(java.lang.String)
+	 */
+	@Override
+	public long[] getLatencyHistogram(String operation) {
+		LongAdder[] h = latency[Op.valueOf(operation).ordinal()];
+		long[] r = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			r[i] = h[i].sum();
+		}
+		return r;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLListMetricsMXBean#reset()
+	 */
+	@Override
+	public void reset() {
+		for (int i = 0; i < calls.length; i++) {
+			calls[i].reset();
+			nodes[i].reset();
+			for (LongAdder a : latency[i]) {
+				a.reset();
+			}
+		}
+		allocations.reset();
+		modifications.reset();
+	}
+
+	/**
+	 * @param name
+	 *            Name identifying a list.
+	 * @return The object name of the list's counters.
+	 * @throws JMException
+	 *             If the name is not valid.
+	 */
+	private static ObjectName objectName(String name) throws JMException {
+		return ObjectName.getInstance("DLList:type=Metrics,name=" + ObjectName.quote(name));
+	}
+
+	/**
+	 * Publish these counters on the platform MBean server under the name
+	 * {@code DLList:type=Metrics,name=<name>}.
+	 *
+	 * @param name
+	 *            Name identifying the list.
+	 * @return The object name registered.
+	 * @throws IllegalStateException
+	 *             If the name could not be registered.
+	 */
+	public ObjectName register(String name) {
+		Objects.requireNonNull(name);
+		try {
+			ObjectName n = objectName(name);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, n);
+			this.name = name;
+			return n;
+		} catch (JMException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Remove these counters from the platform MBean server, if registered.
+	 */
+	public void unregister() {
+		String n = name;
+		if (n == null) {
+			return;
+		}
+		MBeanServer s = ManagementFactory.getPlatformMBeanServer();
+		try {
+			s.unregisterMBean(objectName(n));
+		} catch (JMException e) {
+			throw new IllegalStateException(e);
+		}
+		name = null;
+	}
+}
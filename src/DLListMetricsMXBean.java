@@ -0,0 +1,61 @@
+import java.util.Map;
+
+/**
+ * Management interface of {@code DLListMetrics}, through which the counters
+ * of a list are exposed over JMX.
+ *
+ * @author David Brown
+ */
+public interface DLListMetricsMXBean {
+
+	/**
+	 * @return Number of calls of each instrumented operation, by name.
+	 */
+	Map<String, Long> getOperationCounts();
+
+	/**
+	 * @return Number of nodes walked over by each instrumented operation, by
+	 *         name.
+	 */
+	Map<String, Long> getNodesTraversed();
+
+	/**
+	 * @return Number of list elements allocated.
+	 */
+	long getAllocations();
+
+	/**
+	 * @return Number of {@code ConcurrentModificationException}s thrown by
+	 *         iterators of the list.
+	 */
+	long getConcurrentModifications();
+
+	/**
+	 * @return Number of nodes an operation must walk over to be reported as
+	 *         a JFR event.
+	 */
+	int getTraversalThreshold();
+
+	/**
+	 * @param threshold
+	 *            Number of nodes an operation must walk over to be reported
+	 *            as a JFR event.
+	 */
+	void setTraversalThreshold(int threshold);
+
+	/**
+	 * Return the latency histogram of an operation. Element {@code i} counts
+	 * the calls which took at least 2<sup>i</sup> and less than
+	 * 2<sup>i+1</sup> nanoseconds.
+	 *
+	 * @param operation
+	 *            Name of the operation.
+	 * @return The histogram.
+	 */
+	long[] getLatencyHistogram(String operation);
+
+	/**
+	 * Set every counter back to zero.
+	 */
+	void reset();
+}
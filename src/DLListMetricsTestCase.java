@@ -0,0 +1,111 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DLListMetricsTestCase {
+
+	DLList<Integer> list;
+	DLListMetrics metrics;
+
+	@Before
+	public void setup() {
+		list = new DLList<>();
+		for (int i = 0; i < 100; i++) {
+			list.add(i);
+		}
+		metrics = list.enableMetrics();
+	}
+
+	@Test
+	public void testCounters() {
+		assertEquals(40, (int) list.get(40));
+		assertEquals(90, (int) list.get(90)); // Walks from the tail
+		list.set(30, -1);
+		list.add(20, -2);
+		list.remove(10);
+		assertEquals(50, list.indexOf(50));
+		list.lastIndexOf(50);
+		list.listIterator(5);
+		list.add(1);
+		assertEquals(2, metrics.getCount(DLListMetrics.Op.GET));
+		assertEquals(49, metrics.getNodes(DLListMetrics.Op.GET));
+		assertEquals(30, metrics.getNodes(DLListMetrics.Op.SET));
+		assertEquals(20, metrics.getNodes(DLListMetrics.Op.ADD));
+		assertEquals(10, metrics.getNodes(DLListMetrics.Op.REMOVE));
+		assertEquals(50, metrics.getNodes(DLListMetrics.Op.INDEX_OF));
+		assertEquals(49, metrics.getNodes(DLListMetrics.Op.LAST_INDEX_OF)); // Walks back from the tail
+		assertEquals(5, metrics.getNodes(DLListMetrics.Op.LIST_ITERATOR));
+		assertEquals(2, metrics.getAllocations());
+		long calls = 0;
+		for (long c : metrics.getLatencyHistogram("GET")) {
+			calls += c;
+		}
+		assertEquals(2, calls);
+
+		Iterator<Integer> it = list.iterator();
+		list.add(2);
+		try {
+			it.next();
+		} catch (ConcurrentModificationException e) {
+			// Expected
+		}
+		assertEquals(1, metrics.getConcurrentModifications());
+
+		metrics.reset();
+		assertEquals(0, metrics.getAllocations());
+		list.disableMetrics();
+		list.get(50);
+		assertEquals(0, metrics.getCount(DLListMetrics.Op.GET));
+		assertEquals(null, list.getMetrics());
+	}
+
+	@Test
+	public void testJmx() throws Exception {
+		ObjectName n = metrics.register("test");
+		try {
+			list.get(50);
+			TabularData counts = (TabularData) ManagementFactory.getPlatformMBeanServer().getAttribute(n,
+					"OperationCounts");
+			assertEquals(1L, counts.get(new Object[] { "GET" }).get("value"));
+		} finally {
+			list.disableMetrics();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(n));
+	}
+
+	@Test
+	public void testTraversalEvent() throws Exception {
+		metrics.setTraversalThreshold(30);
+		Path f = Files.createTempFile("dllist", ".jfr");
+		try (Recording r = new Recording()) {
+			r.enable("DLList.Traversal");
+			r.start();
+			list.get(20);
+			list.get(45);
+			r.stop();
+			r.dump(f);
+			List<RecordedEvent> events = RecordingFile.readAllEvents(f);
+			assertEquals(1, events.size());
+			assertEquals("GET", events.get(0).getString("operation"));
+			assertEquals(45, events.get(0).getInt("nodes"));
+		} finally {
+			Files.delete(f);
+		}
+	}
+}
@@ -0,0 +1,296 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue, backed by a {@code DLList}, which pushes its elements to
+ * {@code Flow.Subscriber}s instead of being polled.
+ *
+ * Producers call {@code offer}, which fails when the queue holds
+ * {@code capacity} elements. Each element is delivered to exactly one
+ * subscriber which has outstanding demand; subscribers share the queue as
+ * competing consumers. Delivery runs on the given {@code Executor} and is
+ * triggered by {@code offer} and by {@code request}, so no thread waits on an
+ * empty queue. Elements are taken from the queue up to {@code batch} at a
+ * time under a single lock acquisition and then delivered without holding the
+ * lock.
+ *
+ * After {@code close()} no more elements are accepted, and subscribers are
+ * completed once the queue has been drained.
+ *
+ * Every signal to a subscriber, including {@code onError} for an invalid
+ * request, is sent from its delivery run, so signals are never concurrent. If
+ * a subscriber cancels, or its {@code onNext} throws, while a batch is being
+ * delivered, the undelivered rest of the batch is put back at the head of the
+ * queue for other subscribers. This ignores the capacity, so the queue may
+ * briefly hold up to {@code batch} elements more than {@code capacity} per
+ * subscriber, and {@code offer} fails until it has drained below it again.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object being published.
+ */
+public class DLListPublisher<T> implements Flow.Publisher<T>, AutoCloseable {
+
+	/**
+	 * The queued elements. Also used as the lock guarding itself and
+	 * {@code closed}.
+	 */
+	private final DLList<T> queue = new DLList<>();
+
+	/**
+	 * Maximum number of queued elements.
+	 */
+	private final int capacity;
+
+	/**
+	 * Maximum number of elements taken from the queue at once.
+	 */
+	private final int batch;
+
+	/**
+	 * Runs the delivery of elements to subscribers.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Current subscriptions.
+	 */
+	private final List<Sub> subs = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Whether {@code close()} has been called.
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Create a publisher delivering on the common {@code ForkJoinPool}.
+	 *
+	 * @param capacity
+	 *            Maximum number of queued elements.
+	 */
+	public DLListPublisher(int capacity) {
+		this(capacity, 64, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create a publisher.
+	 *
+	 * @param capacity
+	 *            Maximum number of queued elements.
+	 * @param batch
+	 *            Maximum number of elements taken from the queue at once.
+	 * @param executor
+	 *            Runs the delivery of elements to subscribers.
+	 */
+	public DLListPublisher(int capacity, int batch, Executor executor) {
+		if (capacity < 1 || batch < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		this.batch = batch;
+		this.executor = Objects.requireNonNull(executor);
+	}
+
+	/**
+	 * Queue an element for delivery.
+	 *
+	 * @param e
+	 *            The element to queue, must not be null.
+	 * @return False if the queue is full.
+	 */
+	public boolean offer(T e) {
+		Objects.requireNonNull(e);
+		synchronized (queue) {
+			if (closed) {
+				throw new IllegalStateException("closed");
+			}
+			if (queue.size() >= capacity) {
+				return false;
+			}
+			queue.offer(e);
+		}
+		for (Sub s : subs) {
+			if (s.demand.get() > 0) {
+				s.signal();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The number of elements waiting to be delivered.
+	 */
+	public int size() {
+		synchronized (queue) {
+			return queue.size();
+		}
+	}
+
+	/**
+	 * Stop accepting elements. Subscribers are completed once the elements
+	 * already queued have been delivered.
+	 */
+	@Override
+	public void close() {
+		synchronized (queue) {
+			closed = true;
+		}
+		for (Sub s : subs) {
+			s.signal();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.concurrent.Flow.Publisher#subscribe(java.util.concurrent.
+	 * Flow.Subscriber)
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		Sub s = new Sub(Objects.requireNonNull(subscriber));
+		subs.add(s);
+		subscriber.onSubscribe(s);
+		s.signal(); // Complete straight away if already closed and drained
+	}
+
+	/**
+	 * A single subscriber's subscription, tracking its demand and delivering
+	 * elements to it.
+	 */
+	private class Sub implements Flow.Subscription {
+
+		/**
+		 * The subscriber elements are delivered to.
+		 */
+		private final Flow.Subscriber<? super T> subscriber;
+
+		/**
+		 * Number of elements requested but not yet delivered.
+		 */
+		private final AtomicLong demand = new AtomicLong();
+
+		/**
+		 * Number of signals not yet handled by {@code drain()}. Ensures only
+		 * one delivery runs at a time for this subscriber.
+		 */
+		private final AtomicInteger wip = new AtomicInteger();
+
+		/**
+		 * Whether the subscription has been cancelled or terminated.
+		 */
+		private volatile boolean done = false;
+
+		/**
+		 * An error to be sent to the subscriber by {@code drain()}, or null.
+		 */
+		private volatile Throwable error = null;
+
+		/**
+		 * Initialise the subscription.
+		 *
+		 * @param subscriber
+		 *            The subscriber elements are delivered to.
+		 */
+		private Sub(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.Flow.Subscription#request(long)
+		 */
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				error = new IllegalArgumentException("non-positive request");
+				signal();
+				return;
+			}
+			demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+			signal();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.Flow.Subscription#cancel()
+		 */
+		@Override
+		public void cancel() {
+			done = true;
+			subs.remove(this);
+		}
+
+		/**
+		 * Schedule a delivery run unless one is already scheduled or running.
+		 */
+		private void signal() {
+			if (wip.getAndIncrement() == 0) {
+				executor.execute(this::drain);
+			}
+		}
+
+		/**
+		 * Deliver queued elements while there is demand, repeating for any
+		 * signals which arrived while running. A pending error is sent
+		 * instead, ending the subscription.
+		 */
+		private void drain() {
+			int missed = 1;
+			List<T> taken = new ArrayList<>(batch);
+			do {
+				while (!done) {
+					Throwable x = error;
+					if (x != null) {
+						cancel();
+						subscriber.onError(x);
+						break;
+					}
+					long d = demand.get();
+					boolean complete;
+					synchronized (queue) {
+						queue.drainTo(taken, (int) Math.min(d, batch));
+						complete = closed && queue.isEmpty();
+					}
+					if (taken.isEmpty()) {
+						if (complete) {
+							cancel();
+							subscriber.onComplete();
+						}
+						break;
+					}
+					int i = 0;
+					try {
+						for (; i < taken.size() && !done; i++) {
+							demand.decrementAndGet();
+							subscriber.onNext(taken.get(i));
+						}
+					} catch (RuntimeException | Error t) {
+						i++; // The element was handed over
+						cancel();
+						subscriber.onError(t);
+					} finally {
+						if (i < taken.size()) {
+							synchronized (queue) {
+								// Ignores the capacity, as documented
+								queue.addAll(0, taken.subList(i, taken.size()));
+							}
+						}
+						taken.clear();
+					}
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+	}
+}
@@ -0,0 +1,184 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class DLListPublisherTestCase {
+
+	static class Collector implements Flow.Subscriber<Integer> {
+		final List<Integer> items = new ArrayList<>();
+		Flow.Subscription subscription;
+		boolean completed;
+
+		@Override
+		public void onSubscribe(Flow.Subscription s) {
+			subscription = s;
+		}
+
+		@Override
+		public void onNext(Integer item) {
+			items.add(item);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			throw new AssertionError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+		}
+	}
+
+	@Test
+	public void testDemandIsHonoured() {
+		DLListPublisher<Integer> p = new DLListPublisher<>(100, 4, Runnable::run);
+		Collector c = new Collector();
+		p.subscribe(c);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(p.offer(i));
+		}
+		assertTrue(c.items.isEmpty());
+		c.subscription.request(3);
+		assertEquals(3, c.items.size());
+		assertEquals(7, p.size());
+		c.subscription.request(100);
+		assertEquals(10, c.items.size());
+		p.offer(10);
+		assertEquals(11, c.items.size());
+		for (int i = 0; i < 11; i++) {
+			assertEquals(i, (int) c.items.get(i));
+		}
+		assertFalse(c.completed);
+		p.close();
+		assertTrue(c.completed);
+	}
+
+	@Test
+	public void testBoundedCapacity() {
+		DLListPublisher<Integer> p = new DLListPublisher<>(2, 4, Runnable::run);
+		assertTrue(p.offer(1));
+		assertTrue(p.offer(2));
+		assertFalse(p.offer(3));
+		Collector c = new Collector();
+		p.subscribe(c);
+		c.subscription.request(1);
+		assertTrue(p.offer(3));
+	}
+
+	@Test
+	public void testConcurrentDelivery() throws InterruptedException {
+		ExecutorService ex = Executors.newFixedThreadPool(4);
+		DLListPublisher<Integer> p = new DLListPublisher<>(1 << 20, 16, ex);
+		CountDownLatch done = new CountDownLatch(2);
+		Set<Integer> seen = new HashSet<>();
+		for (int k = 0; k < 2; k++) {
+			p.subscribe(new Flow.Subscriber<Integer>() {
+				@Override
+				public void onSubscribe(Flow.Subscription s) {
+					s.request(Long.MAX_VALUE);
+				}
+
+				@Override
+				public void onNext(Integer item) {
+					synchronized (seen) {
+						assertTrue(seen.add(item));
+					}
+				}
+
+				@Override
+				public void onError(Throwable t) {
+				}
+
+				@Override
+				public void onComplete() {
+					done.countDown();
+				}
+			});
+		}
+		for (int i = 0; i < 100000; i++) {
+			assertTrue(p.offer(i));
+		}
+		p.close();
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(100000, seen.size());
+		ex.shutdown();
+	}
+
+	@Test
+	public void testThrowingSubscriberIsCancelledAndRestRequeued() {
+		DLListPublisher<Integer> p = new DLListPublisher<>(100, 8, Runnable::run);
+		List<Throwable> errors = new ArrayList<>();
+		Collector bad = new Collector() {
+			@Override
+			public void onNext(Integer item) {
+				super.onNext(item);
+				if (item == 2) {
+					throw new IllegalStateException("Broken");
+				}
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				errors.add(t);
+			}
+		};
+		p.subscribe(bad);
+		for (int i = 0; i < 6; i++) {
+			p.offer(i);
+		}
+		bad.subscription.request(10);
+		assertEquals(List.of(0, 1, 2), bad.items);
+		assertEquals(1, errors.size());
+		assertEquals("Broken", errors.get(0).getMessage());
+		assertEquals(3, p.size());
+
+		Collector good = new Collector();
+		p.subscribe(good);
+		good.subscription.request(10);
+		assertEquals(List.of(3, 4, 5), good.items);
+		p.offer(6);
+		assertEquals(List.of(0, 1, 2), bad.items);
+		assertEquals(List.of(3, 4, 5, 6), good.items);
+	}
+
+	@Test
+	public void testInvalidRequestIsSignalledByDelivery() {
+		List<Runnable> tasks = new ArrayList<>();
+		DLListPublisher<Integer> p = new DLListPublisher<>(100, 8, tasks::add);
+		List<Throwable> errors = new ArrayList<>();
+		Collector c = new Collector() {
+			@Override
+			public void onError(Throwable t) {
+				errors.add(t);
+			}
+		};
+		p.subscribe(c);
+		c.subscription.request(0);
+		assertTrue(errors.isEmpty()); // Not on the caller's thread
+		while (!tasks.isEmpty()) {
+			tasks.remove(0).run();
+		}
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0) instanceof IllegalArgumentException);
+		p.offer(1);
+		c.subscription.request(1);
+		while (!tasks.isEmpty()) {
+			tasks.remove(0).run();
+		}
+		assertTrue(c.items.isEmpty());
+		assertEquals(1, errors.size());
+	}
+}
@@ -0,0 +1,43 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event recorded when a single operation on a {@code DLList} with metrics
+ * enabled walks over more nodes than the threshold of its
+ * {@code DLListMetrics}.
+ *
+ * @author David Brown
+ */
+@Name("DLList.Traversal")
+@Label("DLList Long Traversal")
+@Category("DLList")
+@Description("An operation on a DLList walked over many nodes")
+class DLListTraversalEvent extends Event {
+
+	/**
+	 * Name of the operation.
+	 */
+	@Label("Operation")
+	String operation;
+
+	/**
+	 * Number of nodes walked over.
+	 */
+	@Label("Nodes")
+	int nodes;
+
+	/**
+	 * Size of the list at the time.
+	 */
+	@Label("Size")
+	int size;
+
+	/**
+	 * Name of the metrics of the list, if it was given one.
+	 */
+	@Label("List")
+	String list;
+}
@@ -0,0 +1,514 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * A {@code DLList} whose structural mutations are recorded in an append-only
+ * journal, so that the contents of the list survive a crash of the JVM.
+ *
+ * Every mutation (including those made through an iterator) is encoded as a
+ * small record and buffered. Once {@code batchSize} records have been
+ * buffered, the batch is written to the journal file with a single sequential
+ * write, followed by an optional {@code fsync}. When the journal holds more
+ * than {@code compactThreshold} records, the current contents of the list are
+ * written to a snapshot file and the journal is restarted empty.
+ *
+ * On construction the snapshot is loaded and the journal replayed on top of
+ * it. A batch that was only partially written when the JVM died is detected
+ * by its checksum and discarded, along with anything after it.
+ *
+ * Records still in the batch buffer are lost on a crash; call {@code flush()}
+ * or {@code close()} to make them durable.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class DurableDLList<T> extends TrackedDLList<T> implements Closeable {
+
+	/**
+	 * Generated {@code serialVersionUID}
+	 */
+	private static final long serialVersionUID = 2954381127301466722L;
+
+	/**
+	 * Converts elements to and from their binary form in the journal and
+	 * snapshot files.
+	 *
+	 * @param <T>
+	 *            Type of object being converted.
+	 */
+	public interface Codec<T> {
+
+		/**
+		 * Write the given element to the output.
+		 *
+		 * @param e
+		 *            The element to write, may be null.
+		 * @param out
+		 *            Where to write the element.
+		 * @throws IOException
+		 *             If writing fails.
+		 */
+		void write(T e, DataOutput out) throws IOException;
+
+		/**
+		 * Read an element previously written by {@code write}.
+		 *
+		 * @param in
+		 *            Where to read the element from.
+		 * @return The element read.
+		 * @throws IOException
+		 *             If reading fails.
+		 */
+		T read(DataInput in) throws IOException;
+	}
+
+	/**
+	 * Record types written to the journal.
+	 */
+	private static final byte ADD = 1, INSERT = 2, REMOVE = 3, SET = 4, CLEAR = 5;
+
+	/**
+	 * Default number of records buffered before they are written out.
+	 */
+	private static final int DEFAULT_BATCH_SIZE = 64;
+
+	/**
+	 * Default number of journal records after which a snapshot is taken.
+	 */
+	private static final int DEFAULT_COMPACT_THRESHOLD = 1 << 16;
+
+	/**
+	 * Name of the journal file in the list's directory.
+	 */
+	private static final String JOURNAL = "journal.log";
+
+	/**
+	 * Name of the snapshot file in the list's directory.
+	 */
+	private static final String SNAPSHOT = "snapshot.dat";
+
+	/**
+	 * Directory holding the journal and snapshot files.
+	 */
+	private final transient Path dir;
+
+	/**
+	 * Converts elements to and from bytes.
+	 */
+	private final transient Codec<T> codec;
+
+	/**
+	 * Number of records written as one batch.
+	 */
+	private final transient int batchSize;
+
+	/**
+	 * Whether to {@code fsync} the journal after every batch.
+	 */
+	private final transient boolean fsync;
+
+	/**
+	 * Number of journal records after which the list is compacted into a
+	 * snapshot.
+	 */
+	private final transient int compactThreshold;
+
+	/**
+	 * Buffer holding the records of the current batch.
+	 */
+	private transient ByteArrayOutputStream buf;
+
+	/**
+	 * Stream writing into {@code buf}.
+	 */
+	private transient DataOutputStream out;
+
+	/**
+	 * Number of records in {@code buf}.
+	 */
+	private transient int pending;
+
+	/**
+	 * Number of records written to the journal since the last snapshot.
+	 */
+	private transient int journalled;
+
+	/**
+	 * Generation of the current snapshot and journal. A journal is only
+	 * replayed on top of the snapshot of the same generation.
+	 */
+	private transient long generation;
+
+	/**
+	 * Channel appending to the journal file. Null while recovering, so that
+	 * replayed mutations are not journalled again.
+	 */
+	private transient FileChannel journal;
+
+	/**
+	 * Open (or create) a durable list in the given directory using the default
+	 * batch size and compaction threshold, without {@code fsync}.
+	 *
+	 * @param dir
+	 *            Directory holding the journal and snapshot files.
+	 * @param codec
+	 *            Converts elements to and from bytes.
+	 * @throws IOException
+	 *             If the existing files cannot be read.
+	 */
+	public DurableDLList(Path dir, Codec<T> codec) throws IOException {
+		this(dir, codec, DEFAULT_BATCH_SIZE, false, DEFAULT_COMPACT_THRESHOLD);
+	}
+
+	/**
+	 * Open (or create) a durable list in the given directory, recovering any
+	 * contents left by a previous instance.
+	 *
+	 * @param dir
+	 *            Directory holding the journal and snapshot files.
+	 * @param codec
+	 *            Converts elements to and from bytes.
+	 * @param batchSize
+	 *            Number of records buffered before they are written out.
+	 * @param fsync
+	 *            Whether to force each batch to the storage device.
+	 * @param compactThreshold
+	 *            Number of journal records after which a snapshot is taken.
+	 * @throws IOException
+	 *             If the existing files cannot be read.
+	 */
+	public DurableDLList(Path dir, Codec<T> codec, int batchSize, boolean fsync, int compactThreshold)
+			throws IOException {
+		Objects.requireNonNull(dir);
+		Objects.requireNonNull(codec);
+		if (batchSize < 1 || compactThreshold < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.dir = dir;
+		this.codec = codec;
+		this.batchSize = batchSize;
+		this.fsync = fsync;
+		this.compactThreshold = compactThreshold;
+		buf = new ByteArrayOutputStream();
+		out = new DataOutputStream(buf);
+		Files.createDirectories(dir);
+		recover();
+	}
+
+	/**
+	 * Load the snapshot and replay the journal of the same generation, then
+	 * open the journal for appending.
+	 *
+	 * @throws IOException
+	 *             If the files cannot be read.
+	 */
+	private void recover() throws IOException {
+		Path snap = dir.resolve(SNAPSHOT);
+		if (Files.exists(snap)) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snap)))) {
+				generation = in.readLong();
+				for (int n = in.readInt(); n > 0; n--) {
+					super.add(codec.read(in));
+				}
+			}
+		}
+		Path log = dir.resolve(JOURNAL);
+		long good = 0;
+		if (Files.exists(log)) {
+			try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+				DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch)));
+				if (ch.size() >= 8 && in.readLong() == generation) {
+					good = 8;
+					byte[] b;
+					while ((b = readFrame(in, ch.size() - good)) != null) {
+						DataInputStream r = new DataInputStream(new ByteArrayInputStream(b));
+						while (r.available() > 0) {
+							replay(r);
+							journalled++;
+						}
+						good += 12 + b.length;
+					}
+				}
+			}
+		}
+		if (good == 0) {
+			startJournal();
+		} else {
+			journal = FileChannel.open(log, StandardOpenOption.WRITE);
+			journal.truncate(good); // Drop a torn batch left by a crash
+			journal.position(good);
+		}
+	}
+
+	/**
+	 * Read one batch frame from the journal.
+	 *
+	 * @param in
+	 *            The journal being read.
+	 * @param left
+	 *            Number of bytes left in the journal. A frame claiming to be
+	 *            longer than this is torn, and its length is not to be
+	 *            trusted.
+	 * @return The records of the batch, or null if the journal ends here or
+	 *         the frame is incomplete or corrupt.
+	 * @throws IOException
+	 *             If the journal cannot be read.
+	 */
+	private static byte[] readFrame(DataInputStream in, long left) throws IOException {
+		try {
+			int len = in.readInt();
+			long crc = in.readLong();
+			if (len < 0 || len > left - 12) {
+				return null;
+			}
+			byte[] b = new byte[len];
+			in.readFully(b);
+			CRC32 c = new CRC32();
+			c.update(b);
+			return c.getValue() == crc ? b : null;
+		} catch (EOFException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Apply a single journal record to this list.
+	 *
+	 * @param in
+	 *            Stream positioned at the start of the record.
+	 * @throws IOException
+	 *             If the record cannot be decoded.
+	 */
+	private void replay(DataInput in) throws IOException {
+		switch (in.readByte()) {
+		case ADD:
+			super.add(codec.read(in));
+			break;
+		case INSERT:
+			int i = in.readInt();
+			T e = codec.read(in);
+			if (i == size()) {
+				super.add(e);
+			} else {
+				super.add(i, e);
+			}
+			break;
+		case REMOVE:
+			super.remove(in.readInt());
+			break;
+		case SET:
+			int j = in.readInt();
+			super.set(j, codec.read(in));
+			break;
+		case CLEAR:
+			super.clear();
+			break;
+		default:
+			throw new IOException("Unknown journal record");
+		}
+	}
+
+	/**
+	 * Create a fresh, empty journal for the current generation, replacing any
+	 * existing one.
+	 *
+	 * @throws IOException
+	 *             If the journal cannot be written.
+	 */
+	private void startJournal() throws IOException {
+		if (journal != null) {
+			journal.close();
+		}
+		Path tmp = dir.resolve(JOURNAL + ".tmp");
+		try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer b = ByteBuffer.allocate(8);
+			b.putLong(generation).flip();
+			ch.write(b);
+			ch.force(true);
+		}
+		Path log = dir.resolve(JOURNAL);
+		Files.move(tmp, log, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		journal = FileChannel.open(log, StandardOpenOption.WRITE);
+		journal.position(8);
+		journalled = 0;
+	}
+
+	/**
+	 * Write any buffered records to the journal, forcing them to the storage
+	 * device if this list was created with {@code fsync}. Compacts the list
+	 * into a snapshot if the journal has grown past its threshold.
+	 */
+	public void flush() {
+		try {
+			if (pending > 0) {
+				byte[] b = buf.toByteArray();
+				CRC32 c = new CRC32();
+				c.update(b);
+				ByteBuffer frame = ByteBuffer.allocate(12 + b.length);
+				frame.putInt(b.length).putLong(c.getValue()).put(b).flip();
+				while (frame.hasRemaining()) {
+					journal.write(frame);
+				}
+				if (fsync) {
+					journal.force(false);
+				}
+				journalled += pending;
+				pending = 0;
+				buf.reset();
+			}
+			if (journalled >= compactThreshold) {
+				compact();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Write the current contents of this list to a new snapshot and start an
+	 * empty journal. Any buffered records are covered by the snapshot and are
+	 * discarded.
+	 */
+	public void compact() {
+		try {
+			Path tmp = dir.resolve(SNAPSHOT + ".tmp");
+			try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				DataOutputStream s = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch)));
+				s.writeLong(generation + 1);
+				s.writeInt(size());
+				for (Iterator<T> it = super.iterator(); it.hasNext();) {
+					codec.write(it.next(), s);
+				}
+				s.flush();
+				ch.force(true);
+			}
+			Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			generation++;
+			pending = 0;
+			buf.reset();
+			startJournal();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Flush any buffered records and close the journal. The list must not be
+	 * modified afterwards.
+	 *
+	 * @throws IOException
+	 *             If the journal cannot be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			journal.close();
+		}
+	}
+
+	/**
+	 * Append a record to the current batch, writing the batch out if it is
+	 * full. Does nothing while recovering.
+	 *
+	 * @param op
+	 *            The record type.
+	 * @param index
+	 *            The index the record applies to, or -1 if it has none.
+	 * @param e
+	 *            The element the record carries.
+	 * @param hasElem
+	 *            Whether the record carries an element.
+	 */
+	private void log(byte op, int index, T e, boolean hasElem) {
+		if (journal == null) {
+			return;
+		}
+		try {
+			out.writeByte(op);
+			if (index >= 0) {
+				out.writeInt(index);
+			}
+			if (hasElem) {
+				codec.write(e, out);
+			}
+		} catch (IOException x) {
+			throw new UncheckedIOException(x);
+		}
+		if (++pending >= batchSize) {
+			flush();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#inserted(int, java.lang.Object)
+	 */
+	@Override
+	protected void inserted(int index, T element) {
+		if (index == size() - 1) {
+			log(ADD, -1, element, true);
+		} else {
+			log(INSERT, index, element, true);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#removed(int, java.lang.Object)
+	 */
+	@Override
+	protected void removed(int index, T element) {
+		log(REMOVE, index, null, false);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#updated(int, java.lang.Object)
+	 */
+	@Override
+	protected void updated(int index, T element) {
+		log(SET, index, element, true);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#cleared(int)
+	 */
+	@Override
+	protected void cleared(int size) {
+		log(CLEAR, -1, null, false);
+	}
+}
@@ -0,0 +1,180 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.ListIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DurableDLListTestCase {
+
+	static final DurableDLList.Codec<Integer> INTS = new DurableDLList.Codec<Integer>() {
+		@Override
+		public void write(Integer e, DataOutput out) throws IOException {
+			out.writeInt(e);
+		}
+
+		@Override
+		public Integer read(DataInput in) throws IOException {
+			return in.readInt();
+		}
+	};
+
+	Path dir;
+	LinkedList<Integer> test;
+
+	@Before
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("dllist");
+		test = new LinkedList<>();
+	}
+
+	@Test
+	public void testRecoverAfterClose() throws IOException {
+		DurableDLList<Integer> list = new DurableDLList<>(dir, INTS, 4, false, 1000);
+		for (int i = 0; i < 50; i++) {
+			list.offer(i);
+			test.offer(i);
+		}
+		list.poll();
+		test.poll();
+		list.set(3, 300);
+		test.set(3, 300);
+		list.remove(10);
+		test.remove(10);
+		list.add(5, 55);
+		test.add(5, 55);
+		list.offerAll(Arrays.asList(7, 8, 9));
+		test.addAll(Arrays.asList(7, 8, 9));
+		list.drainTo(new LinkedList<Integer>(), 4);
+		test.subList(0, 4).clear();
+		list.close();
+
+		list = new DurableDLList<>(dir, INTS, 4, false, 1000);
+		assertArrayEquals(test.toArray(), list.toArray());
+		list.close();
+	}
+
+	@Test
+	public void testIteratorMutationsAreJournalled() throws IOException {
+		DurableDLList<Integer> list = new DurableDLList<>(dir, INTS, 3, false, 1000);
+		for (int i = 0; i < 20; i++) {
+			list.add(i);
+			test.add(i);
+		}
+		ListIterator<Integer> it = list.listIterator();
+		ListIterator<Integer> ti = test.listIterator();
+		while (it.hasNext()) {
+			int x = it.next();
+			ti.next();
+			if (x % 3 == 0) {
+				it.remove();
+				ti.remove();
+			} else if (x % 3 == 1) {
+				it.set(x * 10);
+				ti.set(x * 10);
+			} else {
+				it.add(-x);
+				ti.add(-x);
+			}
+		}
+		it.previous();
+		ti.previous();
+		it.remove();
+		ti.remove();
+		list.removeIf(x -> x < -10);
+		test.removeIf(x -> x < -10);
+		list.parallelRemoveIf(x -> x % 5 == 0);
+		test.removeIf(x -> x % 5 == 0);
+		list.parallelReplaceAll(x -> x + 1);
+		test.replaceAll(x -> x + 1);
+		list.close();
+
+		list = new DurableDLList<>(dir, INTS, 3, false, 1000);
+		assertArrayEquals(test.toArray(), list.toArray());
+		list.close();
+	}
+
+	@Test
+	public void testCompaction() throws IOException {
+		DurableDLList<Integer> list = new DurableDLList<>(dir, INTS, 8, true, 32);
+		for (int i = 0; i < 200; i++) {
+			list.add(i);
+			test.add(i);
+			if (i % 7 == 0) {
+				list.poll();
+				test.poll();
+			}
+		}
+		list.clear();
+		test.clear();
+		list.addAll(Arrays.asList(1, 2, 3));
+		test.addAll(Arrays.asList(1, 2, 3));
+		list.addAll(1, Arrays.asList(7, 8));
+		test.addAll(1, Arrays.asList(7, 8));
+		list.close();
+		assertTrue(Files.size(dir.resolve("journal.log")) < 200 * 5);
+
+		list = new DurableDLList<>(dir, INTS, 8, true, 32);
+		assertArrayEquals(test.toArray(), list.toArray());
+		list.close();
+	}
+
+	@Test
+	public void testTornBatchIsDiscarded() throws IOException {
+		DurableDLList<Integer> list = new DurableDLList<>(dir, INTS, 2, false, 1000);
+		for (int i = 0; i < 10; i++) {
+			list.add(i);
+		}
+		list.close();
+		Path log = dir.resolve("journal.log");
+		byte[] b = Files.readAllBytes(log);
+		Files.write(log, Arrays.copyOf(b, b.length - 3));
+
+		list = new DurableDLList<>(dir, INTS, 2, false, 1000);
+		assertEquals(8, list.size());
+		list.add(100);
+		list.close();
+
+		list = new DurableDLList<>(dir, INTS, 2, false, 1000);
+		assertEquals(9, list.size());
+		Iterator<Integer> it = list.iterator();
+		for (int i = 0; i < 8; i++) {
+			assertEquals(i, (int) it.next());
+		}
+		assertEquals(100, (int) it.next());
+		list.close();
+	}
+
+	@Test
+	public void testCorruptFrameLengthIsDiscarded() throws IOException {
+		DurableDLList<Integer> list = new DurableDLList<>(dir, INTS, 2, false, 1000);
+		for (int i = 0; i < 10; i++) {
+			list.add(i);
+		}
+		list.close();
+		Path log = dir.resolve("journal.log");
+		ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(log));
+		int last = 8;
+		for (int i = 0; i < 4; i++) {
+			last += 12 + b.getInt(last);
+		}
+		b.putInt(last, Integer.MAX_VALUE); // As if a crash tore the header
+		Files.write(log, b.array());
+
+		list = new DurableDLList<>(dir, INTS, 2, false, 1000);
+		assertEquals(8, list.size());
+		assertEquals(last, Files.size(log));
+		list.close();
+	}
+}
@@ -0,0 +1,215 @@
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A queue whose elements are dropped once they are older than a fixed time to
+ * live.
+ *
+ * Elements are appended with the time they were added and every element lives
+ * for the same time, so they expire in the order they were added and the
+ * oldest is always at the head. Expired elements are therefore removed from
+ * the head of an underlying {@code DLList} as part of the normal operations,
+ * at a cost proportional only to the number expiring, without any timer or
+ * scan of the list. Timeouts which differ between elements are better handled
+ * by a {@code TimerWheel}.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class ExpiringDLList<T> extends AbstractQueue<T> {
+
+	/**
+	 * An element and the time it was added.
+	 *
+	 * @param <T>
+	 *            Type of element.
+	 */
+	private static final class Entry<T> {
+
+		/**
+		 * The element.
+		 */
+		private final T element;
+
+		/**
+		 * Time the element was added.
+		 */
+		private final long added;
+
+		/**
+		 * Initialise an entry.
+		 *
+		 * @param element
+		 *            The element.
+		 * @param added
+		 *            Time the element was added.
+		 */
+		private Entry(T element, long added) {
+			this.element = element;
+			this.added = added;
+		}
+	}
+
+	/**
+	 * The entries, oldest first.
+	 */
+	private final DLList<Entry<T>> entries = new DLList<>();
+
+	/**
+	 * Time an element lives for, in the units of the clock.
+	 */
+	private final long ttl;
+
+	/**
+	 * Source of the current time.
+	 */
+	private final LongSupplier clock;
+
+	/**
+	 * Create a list whose elements live for the given time, measured with
+	 * {@code System.nanoTime()}.
+	 *
+	 * @param ttl
+	 *            Time each element lives for.
+	 * @param unit
+	 *            Unit of {@code ttl}.
+	 */
+	public ExpiringDLList(long ttl, TimeUnit unit) {
+		this(unit.toNanos(ttl), System::nanoTime);
+	}
+
+	/**
+	 * Create a list whose elements live for the given time, measured with the
+	 * given clock.
+	 *
+	 * @param ttl
+	 *            Time each element lives for, in the units of the clock.
+	 * @param clock
+	 *            Source of the current time, which must never go backwards.
+	 */
+	public ExpiringDLList(long ttl, LongSupplier clock) {
+		if (ttl <= 0) {
+			throw new IllegalArgumentException("Time to live must be positive");
+		}
+		this.ttl = ttl;
+		this.clock = Objects.requireNonNull(clock);
+	}
+
+	/**
+	 * Remove every element which has reached its time to live. This is done
+	 * by every other operation, but may be called to release expired elements
+	 * sooner.
+	 *
+	 * @return The number of elements removed.
+	 */
+	public int expire() {
+		return expire(clock.getAsLong());
+	}
+
+	/**
+	 * Remove every element added at or before {@code now - ttl}.
+	 *
+	 * @param now
+	 *            The current time.
+	 * @return The number of elements removed.
+	 */
+	private int expire(long now) {
+		int n = 0;
+		for (Entry<T> e; (e = entries.peek()) != null && now - e.added >= ttl; n++) {
+			entries.poll();
+		}
+		return n;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#offer(java.lang.Object)
+	 */
+	@Override
+	public boolean offer(T e) {
+		Objects.requireNonNull(e);
+		long now = clock.getAsLong();
+		expire(now);
+		entries.add(new Entry<>(e, now));
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#poll()
+	 */
+	@Override
+	public T poll() {
+		expire();
+		Entry<T> e = entries.poll();
+		return e == null ? null : e.element;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#peek()
+	 */
+	@Override
+	public T peek() {
+		expire();
+		Entry<T> e = entries.peek();
+		return e == null ? null : e.element;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#size()
+	 */
+	@Override
+	public int size() {
+		expire();
+		return entries.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#clear()
+	 */
+	@Override
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Return an iterator over the elements which have not expired, oldest
+	 * first. Elements which expire while iterating are still returned.
+	 *
+	 * @return An iterator over the live elements.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		expire();
+		Iterator<Entry<T>> it = entries.iterator();
+		return new Iterator<T>() {
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			@Override
+			public T next() {
+				return it.next().element;
+			}
+
+			@Override
+			public void remove() {
+				it.remove();
+			}
+		};
+	}
+}
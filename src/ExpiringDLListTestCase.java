@@ -0,0 +1,103 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ExpiringDLListTestCase {
+
+	long now = 0;
+
+	@Test
+	public void testExpiresOldest() {
+		ExpiringDLList<Integer> list = new ExpiringDLList<>(100, () -> now);
+		for (int i = 0; i < 10; i++) {
+			list.add(i);
+			now += 20;
+		}
+		// Only elements added after 100 are still live at 200
+		assertEquals(4, list.size());
+		assertEquals(6, (int) list.peek());
+		now = 250;
+		assertArrayEquals(new Object[] { 8, 9 }, list.toArray());
+		now = 1000;
+		assertEquals(null, list.poll());
+		list.offer(1);
+		assertEquals(1, (int) list.poll());
+	}
+
+	@Test
+	public void testExpiryOnPollAndPeek() {
+		ExpiringDLList<Integer> list = new ExpiringDLList<>(100, () -> now);
+		list.add(0);
+		now = 10;
+		list.add(1);
+		now = 20;
+		list.add(2);
+		now = 100; // Exactly the time to live of the first
+		assertEquals(1, (int) list.peek());
+		now = 115;
+		assertEquals(2, (int) list.poll());
+		assertEquals(null, list.peek());
+		now = 1000;
+		assertEquals(null, list.poll());
+		assertTrue(list.isEmpty());
+	}
+
+	@Test
+	public void testRemoveCancelsExpiry() {
+		ExpiringDLList<Integer> list = new ExpiringDLList<>(100, () -> now);
+		for (int i = 0; i < 4; i++) {
+			list.add(i);
+			now += 10;
+		}
+		assertTrue(list.remove(Integer.valueOf(1)));
+		Iterator<Integer> it = list.iterator();
+		assertEquals(0, (int) it.next());
+		assertEquals(2, (int) it.next());
+		it.remove();
+		assertArrayEquals(new Object[] { 0, 3 }, list.toArray());
+		now = 125; // Past the time to live of 0, 1 and 2
+		assertEquals(1, list.expire());
+		assertArrayEquals(new Object[] { 3 }, list.toArray());
+		now = 130;
+		assertEquals(1, list.expire());
+		assertEquals(0, list.expire());
+	}
+
+	@Test
+	public void testClear() {
+		ExpiringDLList<Integer> list = new ExpiringDLList<>(100, () -> now);
+		list.add(1);
+		list.add(2);
+		list.clear();
+		assertEquals(0, list.size());
+		assertEquals(null, list.peek());
+		now = 200;
+		assertEquals(0, list.expire());
+		list.add(3);
+		now = 299;
+		assertEquals(3, (int) list.peek());
+	}
+
+	@Test
+	public void testIterationSkipsExpired() {
+		ExpiringDLList<Integer> list = new ExpiringDLList<>(100, () -> now);
+		for (int i = 0; i < 5; i++) {
+			list.add(i);
+			now += 30;
+		}
+		now = 150; // 0 and 1 have expired
+		List<Integer> seen = new ArrayList<>();
+		Iterator<Integer> it = list.iterator();
+		seen.add(it.next());
+		now = 210; // Elements expiring while iterating are still returned
+		it.forEachRemaining(seen::add);
+		assertEquals(List.of(2, 3, 4), seen);
+		assertEquals(List.of(4), new ArrayList<>(list));
+	}
+}
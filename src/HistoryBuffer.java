@@ -0,0 +1,449 @@
+import java.util.AbstractQueue;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A queue of bounded size which makes room for each new element by evicting
+ * old ones, for keeping the last few events of some kind.
+ *
+ * The bound is either a number of elements or, if a weigher is given, a total
+ * weight. Adding an element which would exceed it first evicts elements from
+ * the head (the oldest) or from the tail (the newest), according to the
+ * policy, each in constant time, and passes each of them to an optional
+ * listener. A new element is therefore always accepted.
+ *
+ * Nodes are kept in a circular doubly linked ring, which holds the elements
+ * followed by spare nodes. Removing an element leaves its node in the ring as
+ * a spare, and adding an element takes the spare following the tail, so once
+ * the ring has grown to the largest number of elements held, adding and
+ * evicting allocate nothing. The ring grows one node at a time as needed, so
+ * a buffer with a large bound costs nothing until it fills. Nodes are never
+ * shared with a {@code DLList}, whose handles and stable iterators rely on
+ * removed nodes never being used again.
+ *
+ * Elements must not be null. The buffer is not thread-safe, and the eviction
+ * listener must not modify it.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class HistoryBuffer<T> extends AbstractQueue<T> {
+
+	/**
+	 * Which elements are evicted to make room for a new one.
+	 */
+	public enum Eviction {
+
+		/**
+		 * Evict from the head, keeping the most recent elements.
+		 */
+		OLDEST,
+
+		/**
+		 * Evict from the tail, keeping the earliest elements and the newest.
+		 */
+		NEWEST
+	}
+
+	/**
+	 * A node of the ring, holding an element or spare.
+	 *
+	 * @param <T>
+	 *            Type of element.
+	 */
+	private static final class Node<T> {
+
+		/**
+		 * The element, or null if the node is spare.
+		 */
+		private T content;
+
+		/**
+		 * Weight of the element.
+		 */
+		private long weight;
+
+		/**
+		 * The following node in the ring.
+		 */
+		private Node<T> next;
+
+		/**
+		 * The preceding node in the ring.
+		 */
+		private Node<T> prev;
+	}
+
+	/**
+	 * The maximum number of elements, or total weight.
+	 */
+	private final long capacity;
+
+	/**
+	 * Weighs elements, or null to count them.
+	 */
+	private final ToLongFunction<? super T> weigher;
+
+	/**
+	 * Which elements are evicted.
+	 */
+	private final Eviction policy;
+
+	/**
+	 * Receives evicted elements, or null.
+	 */
+	private final Consumer<? super T> listener;
+
+	/**
+	 * The oldest element, or the node which will receive the next element if
+	 * the buffer is empty.
+	 */
+	private Node<T> head;
+
+	/**
+	 * The newest element, or the node preceding {@code head} if the buffer is
+	 * empty.
+	 */
+	private Node<T> tail;
+
+	/**
+	 * Number of elements.
+	 */
+	private int size = 0;
+
+	/**
+	 * Total weight of the elements.
+	 */
+	private long weight = 0;
+
+	/**
+	 * Number of nodes in the ring.
+	 */
+	private int nodes;
+
+	/**
+	 * Number of changes made to the buffer, used by iterators to detect
+	 * concurrent modification.
+	 */
+	private int modCount = 0;
+
+	/**
+	 * Create a buffer holding at most the given number of elements, evicting
+	 * the oldest.
+	 *
+	 * @param capacity
+	 *            The maximum number of elements.
+	 */
+	public HistoryBuffer(int capacity) {
+		this(capacity, null, Eviction.OLDEST, null);
+	}
+
+	/**
+	 * Create a buffer holding at most the given number of elements.
+	 *
+	 * @param capacity
+	 *            The maximum number of elements.
+	 * @param policy
+	 *            Which elements are evicted.
+	 * @param listener
+	 *            Receives evicted elements, or null.
+	 */
+	public HistoryBuffer(int capacity, Eviction policy, Consumer<? super T> listener) {
+		this(capacity, null, policy, listener);
+	}
+
+	/**
+	 * Create a buffer bounded by the total weight of its elements, or by
+	 * their number if no weigher is given.
+	 *
+	 * @param capacity
+	 *            The maximum total weight, or number of elements.
+	 * @param weigher
+	 *            Weighs elements, giving a weight from zero to the capacity,
+	 *            or null to count them. The weight of an element is taken once,
+	 *            when it is added.
+	 * @param policy
+	 *            Which elements are evicted.
+	 * @param listener
+	 *            Receives evicted elements, or null.
+	 */
+	public HistoryBuffer(long capacity, ToLongFunction<? super T> weigher, Eviction policy,
+			Consumer<? super T> listener) {
+		if (capacity < 1 || (weigher == null && capacity > Integer.MAX_VALUE)) {
+			throw new IllegalArgumentException("Capacity out of range");
+		}
+		this.capacity = capacity;
+		this.weigher = weigher;
+		this.policy = Objects.requireNonNull(policy);
+		this.listener = listener;
+		head = new Node<>();
+		head.next = head;
+		head.prev = head;
+		nodes = 1;
+		tail = head;
+	}
+
+	/**
+	 * Add a new spare node to the ring after the tail, which must be followed
+	 * by the head.
+	 *
+	 * @return The new node.
+	 */
+	private Node<T> spare() {
+		Node<T> n = new Node<>();
+		n.prev = tail;
+		n.next = head;
+		head.prev = n;
+		tail.next = n;
+		nodes++;
+		return n;
+	}
+
+	/**
+	 * @return The maximum number of elements, or total weight.
+	 */
+	public long capacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The total weight of the elements, or their number if there is
+	 *         no weigher.
+	 */
+	public long weight() {
+		return weight;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Add an element at the tail, first evicting as many elements as needed
+	 * to keep within the capacity.
+	 *
+	 * @param e
+	 *            The element to add.
+	 * @return Always true.
+	 * @throws IllegalArgumentException
+	 *             If the element weighs less than zero or more than the
+	 *             capacity.
+	 */
+	@Override
+	public boolean offer(T e) {
+		Objects.requireNonNull(e);
+		long w = weigher == null ? 1 : weigher.applyAsLong(e);
+		if (w < 0 || w > capacity) {
+			throw new IllegalArgumentException("Weight out of range: " + w);
+		}
+		while (weight + w > capacity) {
+			T o = policy == Eviction.OLDEST ? unlinkHead() : unlinkTail();
+			if (listener != null) {
+				listener.accept(o);
+			}
+		}
+		Node<T> n = tail.next;
+		if (size > 0 && n == head) {
+			n = spare(); // The ring is full
+		}
+		n.content = e;
+		n.weight = w;
+		tail = n;
+		size++;
+		weight += w;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Remove the head element, leaving its node spare.
+	 *
+	 * @return The element removed.
+	 */
+	private T unlinkHead() {
+		Node<T> n = head;
+		T o = n.content;
+		n.content = null;
+		weight -= n.weight;
+		head = n.next;
+		size--;
+		modCount++;
+		return o;
+	}
+
+	/**
+	 * Remove the tail element, leaving its node spare.
+	 *
+	 * @return The element removed.
+	 */
+	private T unlinkTail() {
+		Node<T> n = tail;
+		T o = n.content;
+		n.content = null;
+		weight -= n.weight;
+		tail = n.prev;
+		size--;
+		modCount++;
+		return o;
+	}
+
+	/**
+	 * Remove an element from anywhere in the buffer, moving its node to the
+	 * spares after the tail.
+	 *
+	 * @param n
+	 *            The node of the element.
+	 */
+	private void unlink(Node<T> n) {
+		if (n == head) {
+			unlinkHead();
+		} else if (n == tail) {
+			unlinkTail();
+		} else {
+			n.prev.next = n.next;
+			n.next.prev = n.prev;
+			n.prev = tail;
+			n.next = tail.next;
+			tail.next.prev = n;
+			tail.next = n;
+			n.content = null;
+			weight -= n.weight;
+			size--;
+			modCount++;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#poll()
+	 */
+	@Override
+	public T poll() {
+		return size == 0 ? null : unlinkHead();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#peek()
+	 */
+	@Override
+	public T peek() {
+		return size == 0 ? null : head.content;
+	}
+
+	/**
+	 * @return The newest element, or null if the buffer is empty.
+	 */
+	public T peekLast() {
+		return size == 0 ? null : tail.content;
+	}
+
+	/**
+	 * Remove the newest element.
+	 *
+	 * @return The element removed, or null if the buffer is empty.
+	 */
+	public T pollLast() {
+		return size == 0 ? null : unlinkTail();
+	}
+
+	/**
+	 * Remove every element without passing it to the listener. The nodes are
+	 * kept for reuse.
+	 */
+	@Override
+	public void clear() {
+		for (Node<T> n = head; size > 0; n = n.next, size--) {
+			n.content = null;
+		}
+		tail = head.prev;
+		weight = 0;
+		modCount++;
+	}
+
+	/**
+	 * @return The number of nodes allocated, for elements and spares.
+	 */
+	int nodes() {
+		return nodes;
+	}
+
+	/**
+	 * Return an iterator over the elements, oldest first. It supports
+	 * {@code remove()}, and is fail-fast.
+	 *
+	 * @return An iterator over the elements.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+
+			/**
+			 * The expected modification count.
+			 */
+			private int xp = modCount;
+
+			/**
+			 * The node of the next element.
+			 */
+			private Node<T> next = head;
+
+			/**
+			 * Number of elements still to be returned.
+			 */
+			private int remaining = size;
+
+			/**
+			 * The node of the last element returned, or null if it may not be
+			 * removed.
+			 */
+			private Node<T> last = null;
+
+			@Override
+			public boolean hasNext() {
+				return remaining > 0;
+			}
+
+			@Override
+			public T next() {
+				if (xp != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = next.next;
+				remaining--;
+				return last.content;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				if (xp != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				unlink(last);
+				last = null;
+				xp = modCount;
+			}
+		};
+	}
+}
@@ -0,0 +1,153 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+
+public class HistoryBufferTestCase {
+
+	@Test
+	public void testKeepsLastN() {
+		List<Integer> evicted = new ArrayList<>();
+		HistoryBuffer<Integer> b = new HistoryBuffer<>(5, HistoryBuffer.Eviction.OLDEST, evicted::add);
+		for (int i = 0; i < 12; i++) {
+			assertTrue(b.add(i));
+		}
+		assertEquals(5, b.size());
+		assertEquals(5, b.weight());
+		assertArrayEquals(new Object[] { 7, 8, 9, 10, 11 }, b.toArray());
+		assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), evicted);
+		assertEquals(7, (int) b.peek());
+		assertEquals(11, (int) b.peekLast());
+		assertEquals(5, b.nodes());
+	}
+
+	@Test
+	public void testEvictNewest() {
+		List<Integer> evicted = new ArrayList<>();
+		HistoryBuffer<Integer> b = new HistoryBuffer<>(3, HistoryBuffer.Eviction.NEWEST, evicted::add);
+		for (int i = 0; i < 6; i++) {
+			b.offer(i);
+		}
+		assertArrayEquals(new Object[] { 0, 1, 5 }, b.toArray());
+		assertEquals(List.of(2, 3, 4), evicted);
+	}
+
+	@Test
+	public void testWeigher() {
+		List<String> evicted = new ArrayList<>();
+		HistoryBuffer<String> b = new HistoryBuffer<>(10, String::length, HistoryBuffer.Eviction.OLDEST, evicted::add);
+		b.add("aaaa");
+		b.add("bbb");
+		b.add("cc");
+		assertEquals(9, b.weight());
+		b.add("ddddd");
+		assertEquals(List.of("aaaa"), evicted);
+		assertArrayEquals(new Object[] { "bbb", "cc", "ddddd" }, b.toArray());
+		assertEquals(10, b.weight());
+		b.add("eeeeeeeeee");
+		assertEquals(List.of("aaaa", "bbb", "cc", "ddddd"), evicted);
+		assertEquals(1, b.size());
+		for (int i = 0; i < 20; i++) {
+			b.add("");
+		}
+		assertEquals(21, b.size());
+		assertEquals(10, b.weight());
+		assertEquals("eeeeeeeeee", b.poll());
+		assertEquals(0, b.weight());
+	}
+
+	@Test
+	public void testRingGrowsToCapacity() {
+		HistoryBuffer<Integer> b = new HistoryBuffer<>(Integer.MAX_VALUE);
+		assertEquals(1, b.nodes());
+		b = new HistoryBuffer<>(100);
+		for (int i = 0; i < 60; i++) {
+			b.add(i);
+		}
+		assertEquals(60, b.nodes());
+		for (int i = 60; i < 1000; i++) {
+			b.add(i);
+		}
+		assertEquals(100, b.nodes());
+		assertEquals(900, (int) b.peek());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooHeavy() {
+		new HistoryBuffer<String>(3, String::length, HistoryBuffer.Eviction.OLDEST, null).add("abcd");
+	}
+
+	@Test
+	public void testPollAndClearReuseNodes() {
+		HistoryBuffer<Integer> b = new HistoryBuffer<>(100, e -> 1, HistoryBuffer.Eviction.OLDEST, null);
+		for (int i = 0; i < 50; i++) {
+			b.add(i);
+		}
+		int nodes = b.nodes();
+		assertEquals(0, (int) b.poll());
+		assertEquals(49, (int) b.pollLast());
+		b.clear();
+		assertTrue(b.isEmpty());
+		assertNull(b.poll());
+		assertNull(b.peekLast());
+		for (int i = 0; i < 50; i++) {
+			b.add(i);
+		}
+		assertEquals(nodes, b.nodes());
+		assertEquals(0, (int) b.peek());
+	}
+
+	@Test
+	public void testIteratorRemove() {
+		HistoryBuffer<Integer> b = new HistoryBuffer<>(6);
+		for (int i = 0; i < 6; i++) {
+			b.add(i);
+		}
+		b.removeIf(e -> e % 2 == 0);
+		assertArrayEquals(new Object[] { 1, 3, 5 }, b.toArray());
+		for (int i = 6; i < 10; i++) {
+			b.add(i);
+		}
+		assertArrayEquals(new Object[] { 3, 5, 6, 7, 8, 9 }, b.toArray());
+		assertEquals(6, b.nodes());
+
+		Iterator<Integer> it = b.iterator();
+		it.next();
+		b.add(10);
+		try {
+			it.next();
+			assertTrue(false);
+		} catch (ConcurrentModificationException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testSteadyStateDoesNotAllocate() {
+		ThreadMXBean t = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId();
+		HistoryBuffer<String> b = new HistoryBuffer<>(1000, String::length, HistoryBuffer.Eviction.OLDEST, null);
+		String[] values = { "a", "bb", "ccc", "dddd" };
+		for (int i = 0; i < 100000; i++) {
+			b.offer(values[i & 3]);
+		}
+		int nodes = b.nodes();
+		long before = t.getThreadAllocatedBytes(id);
+		for (int i = 0; i < 100000; i++) {
+			b.offer(values[i & 3]);
+		}
+		long allocated = t.getThreadAllocatedBytes(id) - before;
+		assertEquals(nodes, b.nodes());
+		assertTrue("Allocated " + allocated, allocated < 10000);
+	}
+}
@@ -0,0 +1,685 @@
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * A doubly linked list whose elements hold their own links, so that adding an
+ * element allocates nothing and an element can remove itself from its list in
+ * constant time.
+ *
+ * Elements must extend {@code IntrusiveDLList.Node}, which holds the links to
+ * the neighbouring elements and to the list. As in {@code DLList}, the list
+ * keeps a "dummy" node whose next and previous links point to the first and
+ * last elements, so linking and unlinking never need to check for the ends.
+ *
+ * Since an element has only one set of links, it can be in at most one list
+ * at a time, and only once. Adding an element which is already in a list
+ * throws {@code IllegalStateException}; null elements are not permitted.
+ * Replacing an element with itself does nothing, and {@code sort} relinks
+ * the elements in place, but replacing an element with another element of
+ * the same list throws, so algorithms which rearrange a list by swapping
+ * elements, such as {@code Collections.reverse}, {@code swap} and
+ * {@code shuffle}, cannot be used.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class IntrusiveDLList<T extends IntrusiveDLList.Node<T>> extends AbstractSequentialList<T> implements Queue<T> {
+
+	/**
+	 * Base class of the elements of an {@code IntrusiveDLList}, holding the
+	 * links which would otherwise be in a separate list node.
+	 *
+	 * @param <T>
+	 *            The type extending this class.
+	 */
+	public abstract static class Node<T extends Node<T>> {
+
+		/**
+		 * The next node, or null if not in a list.
+		 */
+		private Node<T> next;
+
+		/**
+		 * The previous node, or null if not in a list.
+		 */
+		private Node<T> prev;
+
+		/**
+		 * The list this node is in, or null if none.
+		 */
+		private IntrusiveDLList<T> list;
+
+		/**
+		 * @return True if this element is in a list.
+		 */
+		public final boolean isLinked() {
+			return list != null;
+		}
+
+		/**
+		 * @return The list this element is in, or null if none.
+		 */
+		public final IntrusiveDLList<T> list() {
+			return list;
+		}
+
+		/**
+		 * @return The following element, or null if this is the last element
+		 *         or is not in a list.
+		 */
+		@SuppressWarnings("unchecked")
+		public final T next() {
+			return list == null || next == list.dummy ? null : (T) next;
+		}
+
+		/**
+		 * @return The preceding element, or null if this is the first element
+		 *         or is not in a list.
+		 */
+		@SuppressWarnings("unchecked")
+		public final T prev() {
+			return list == null || prev == list.dummy ? null : (T) prev;
+		}
+
+		/**
+		 * Remove this element from the list it is in.
+		 *
+		 * @throws IllegalStateException
+		 *             If the element is not in a list.
+		 */
+		public final void unlink() {
+			if (list == null) {
+				throw new IllegalStateException("Not in a list");
+			}
+			list.unlinkNode(this);
+		}
+	}
+
+	/**
+	 * The dummy node, which is never an element of the list.
+	 */
+	private final Node<T> dummy = new Node<T>() {};
+
+	/**
+	 * Number of elements in the list.
+	 */
+	private int size = 0;
+
+	/**
+	 * Default initialisation of the list.
+	 */
+	public IntrusiveDLList() {
+		dummy.next = dummy;
+		dummy.prev = dummy;
+	}
+
+	/**
+	 * Link an element into this list before the given node.
+	 *
+	 * @param e
+	 *            The element, which must not be in a list.
+	 * @param before
+	 *            The node to insert before, which may be the dummy to append.
+	 */
+	private void linkBefore(T e, Node<T> before) {
+		Node<T> n = Objects.requireNonNull(e);
+		if (n.list != null) {
+			throw new IllegalStateException("Already in a list");
+		}
+		n.list = this;
+		n.next = before;
+		n.prev = before.prev;
+		before.prev.next = n;
+		before.prev = n;
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Unlink a node of this list and clear its links.
+	 *
+	 * @param n
+	 *            The node to remove.
+	 * @return The element removed.
+	 */
+	@SuppressWarnings("unchecked")
+	private T unlinkNode(Node<T> n) {
+		n.prev.next = n.next;
+		n.next.prev = n.prev;
+		n.next = null;
+		n.prev = null;
+		n.list = null;
+		size--;
+		modCount++;
+		return (T) n;
+	}
+
+	/**
+	 * Check that an element is in this list.
+	 *
+	 * @param e
+	 *            The element.
+	 * @return The element as a node.
+	 * @throws IllegalArgumentException
+	 *             If the element is not in this list.
+	 */
+	private Node<T> assertMember(T e) {
+		Node<T> n = Objects.requireNonNull(e);
+		if (n.list != this) {
+			throw new IllegalArgumentException("Not in this list");
+		}
+		return n;
+	}
+
+	/**
+	 * Find the node at the given index, searching from the nearer end. An
+	 * index equal to the size returns the dummy.
+	 *
+	 * @param index
+	 *            Index of the node.
+	 * @return The node.
+	 */
+	private Node<T> node(int index) {
+		Node<T> n = dummy;
+		if (index < size / 2) {
+			for (int i = -1; i < index; i++) {
+				n = n.next;
+			}
+		} else {
+			for (int i = size; i > index; i--) {
+				n = n.prev;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Throw an exception if the index is not that of an element.
+	 *
+	 * @param i
+	 *            The index.
+	 */
+	private void assertIndex(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(T e) {
+		linkBefore(e, dummy);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(int, java.lang.Object)
+	 */
+	@Override
+	public void add(int index, T element) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		linkBefore(element, node(index));
+	}
+
+	/**
+	 * Insert an element immediately before another element of this list.
+	 *
+	 * @param pos
+	 *            An element of this list.
+	 * @param e
+	 *            The element to insert, which must not be in a list.
+	 * @throws IllegalArgumentException
+	 *             If {@code pos} is not in this list.
+	 */
+	public void insertBefore(T pos, T e) {
+		assertMember(pos);
+		linkBefore(e, pos);
+	}
+
+	/**
+	 * Insert an element immediately after another element of this list.
+	 *
+	 * @param pos
+	 *            An element of this list.
+	 * @param e
+	 *            The element to insert, which must not be in a list.
+	 * @throws IllegalArgumentException
+	 *             If {@code pos} is not in this list.
+	 */
+	public void insertAfter(T pos, T e) {
+		linkBefore(e, assertMember(pos).next);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#get(int)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		assertIndex(index);
+		return (T) node(index);
+	}
+
+	/**
+	 * Replace the element at the given index. The old element is removed from
+	 * the list, and the new one takes its place.
+	 *
+	 * @param index
+	 *            Index of the element to replace.
+	 * @param element
+	 *            The new element, which must not be in a list unless it is
+	 *            already the element at this index, when nothing is done.
+	 * @return The element removed.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public T set(int index, T element) {
+		assertIndex(index);
+		Node<T> n = node(index);
+		if (n == element) {
+			return (T) n;
+		}
+		linkBefore(element, n);
+		return unlinkNode(n);
+	}
+
+	/**
+	 * Sort the list by relinking its elements in order, which unlike the
+	 * default implementation does not replace elements with each other. The
+	 * sort is stable.
+	 *
+	 * @param c
+	 *            The comparator, or null to use the natural ordering.
+	 */
+	@Override
+	public void sort(Comparator<? super T> c) {
+		List<T> a = new ArrayList<>(this);
+		a.sort(c);
+		Node<T> last = dummy;
+		for (T e : a) {
+			Node<T> n = e;
+			n.prev = last;
+			last.next = n;
+			last = n;
+		}
+		last.next = dummy;
+		dummy.prev = last;
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#remove(int)
+	 */
+	@Override
+	public T remove(int index) {
+		assertIndex(index);
+		return unlinkNode(node(index));
+	}
+
+	/**
+	 * Remove the given element if it is in this list. Unlike other lists,
+	 * this finds the element by its links rather than by {@code equals}, so
+	 * takes constant time.
+	 *
+	 * @param o
+	 *            The element to remove.
+	 * @return True if the element was in this list.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (!(o instanceof Node) || ((Node<?>) o).list != this) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		Node<T> n = (Node<T>) o;
+		unlinkNode(n);
+		return true;
+	}
+
+	/**
+	 * Check whether the given element is in this list. Unlike other lists,
+	 * this uses identity rather than {@code equals}, so takes constant time.
+	 *
+	 * @param o
+	 *            The element to look for.
+	 * @return True if the element is in this list.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof Node && ((Node<?>) o).list == this;
+	}
+
+	/**
+	 * Move an element of this list to the front.
+	 *
+	 * @param e
+	 *            An element of this list.
+	 * @throws IllegalArgumentException
+	 *             If the element is not in this list.
+	 */
+	public void moveToFront(T e) {
+		assertMember(e);
+		if (dummy.next != e) {
+			unlinkNode(e);
+			linkBefore(e, dummy.next);
+		}
+	}
+
+	/**
+	 * Move an element of this list to the back.
+	 *
+	 * @param e
+	 *            An element of this list.
+	 * @throws IllegalArgumentException
+	 *             If the element is not in this list.
+	 */
+	public void moveToBack(T e) {
+		assertMember(e);
+		if (dummy.prev != e) {
+			unlinkNode(e);
+			linkBefore(e, dummy);
+		}
+	}
+
+	/**
+	 * Remove every element, clearing the links of each so that they can be
+	 * added to a list again.
+	 */
+	@Override
+	public void clear() {
+		for (Node<T> n = dummy.next, next; n != dummy; n = next) {
+			next = n.next;
+			n.next = null;
+			n.prev = null;
+			n.list = null;
+		}
+		dummy.next = dummy;
+		dummy.prev = dummy;
+		size = 0;
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#offer(java.lang.Object)
+	 */
+	@Override
+	public boolean offer(T e) {
+		return add(e);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#remove()
+	 */
+	@Override
+	public T remove() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return unlinkNode(dummy.next);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#poll()
+	 */
+	@Override
+	public T poll() {
+		return size == 0 ? null : unlinkNode(dummy.next);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#element()
+	 */
+	@Override
+	public T element() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return peek();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#peek()
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public T peek() {
+		return size == 0 ? null : (T) dummy.next;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#listIterator(int)
+	 */
+	@Override
+	public ListIterator<T> listIterator(int index) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return new It(index);
+	}
+
+	/**
+	 * List iterator over the elements, behaving as specified by the
+	 * {@code ListIterator} interface.
+	 */
+	private class It implements ListIterator<T> {
+
+		/**
+		 * The expected modification count.
+		 */
+		private int xp = modCount;
+
+		/**
+		 * Node which will be returned by the next call to {@code next()}.
+		 */
+		private Node<T> cur;
+
+		/**
+		 * Node last returned by {@code next()} or {@code previous()}, or null.
+		 */
+		private Node<T> lr = null;
+
+		/**
+		 * Index of {@code cur}.
+		 */
+		private int p;
+
+		/**
+		 * Initialise the iterator at the given index.
+		 *
+		 * @param index
+		 *            Index of the first element to be returned by
+		 *            {@code next()}.
+		 */
+		private It(int index) {
+			cur = node(index);
+			p = index;
+		}
+
+		/**
+		 * Throws a {@code ConcurrentModificationException} if the list has
+		 * been modified other than through this iterator.
+		 */
+		private void checkModification() {
+			if (xp != modCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			return p != size;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#next()
+		 */
+		@SuppressWarnings("unchecked")
+		@Override
+		public T next() {
+			checkModification();
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			lr = cur;
+			cur = cur.next;
+			p++;
+			return (T) lr;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#hasPrevious()
+		 */
+		@Override
+		public boolean hasPrevious() {
+			return p != 0;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#previous()
+		 */
+		@SuppressWarnings("unchecked")
+		@Override
+		public T previous() {
+			checkModification();
+			if (!hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			cur = cur.prev;
+			lr = cur;
+			p--;
+			return (T) lr;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#nextIndex()
+		 */
+		@Override
+		public int nextIndex() {
+			return p;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#previousIndex()
+		 */
+		@Override
+		public int previousIndex() {
+			return p - 1;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			checkModification();
+			if (lr == null) {
+				throw new IllegalStateException();
+			}
+			if (lr == cur) {
+				cur = lr.next;
+			} else {
+				p--;
+			}
+			unlinkNode(lr);
+			lr = null;
+			xp = modCount;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#set(java.lang.Object)
+		 */
+		@Override
+		public void set(T e) {
+			checkModification();
+			if (lr == null) {
+				throw new IllegalStateException();
+			}
+			if (lr == e) {
+				return;
+			}
+			linkBefore(e, lr);
+			if (lr == cur) {
+				cur = e;
+			}
+			unlinkNode(lr);
+			lr = e;
+			xp = modCount;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#add(java.lang.Object)
+		 */
+		@Override
+		public void add(T e) {
+			checkModification();
+			linkBefore(e, cur);
+			lr = null;
+			p++;
+			xp = modCount;
+		}
+	}
+}
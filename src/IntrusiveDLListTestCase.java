@@ -0,0 +1,132 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.ListIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntrusiveDLListTestCase {
+
+	static class Item extends IntrusiveDLList.Node<Item> {
+		final int value;
+
+		Item(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public String toString() {
+			return Integer.toString(value);
+		}
+	}
+
+	IntrusiveDLList<Item> list;
+	Item[] items;
+
+	@Before
+	public void setup() {
+		list = new IntrusiveDLList<>();
+		items = new Item[5];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = new Item(i);
+			list.add(items[i]);
+		}
+	}
+
+	@Test
+	public void testSelfUnlink() {
+		items[2].unlink();
+		assertFalse(items[2].isLinked());
+		assertEquals(null, items[2].next());
+		assertEquals(4, list.size());
+		assertTrue(items[3] == items[1].next());
+		assertTrue(items[1] == items[3].prev());
+		assertEquals(null, items[0].prev());
+		assertEquals(null, items[4].next());
+		assertFalse(list.contains(items[2]));
+		assertTrue(list.contains(items[3]));
+
+		list.add(0, items[2]); // Unlinked elements can be added again
+		assertArrayEquals(new Item[] { items[2], items[0], items[1], items[3], items[4] }, list.toArray());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAlreadyLinked() {
+		new IntrusiveDLList<Item>().add(items[0]);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testUnlinkTwice() {
+		items[0].unlink();
+		items[0].unlink();
+	}
+
+	@Test
+	public void testQueueAndMoves() {
+		list.moveToFront(items[3]);
+		list.moveToBack(items[0]);
+		list.insertAfter(items[3], new Item(7));
+		assertEquals(3, list.peek().value);
+		assertEquals(3, list.poll().value);
+		assertEquals(7, list.remove().value);
+		assertArrayEquals(new Item[] { items[1], items[2], items[4], items[0] }, list.toArray());
+		assertTrue(list.remove(items[4]));
+		assertFalse(list.remove(items[4]));
+		list.clear();
+		assertEquals(0, list.size());
+		assertFalse(items[1].isLinked());
+		assertEquals(null, list.poll());
+	}
+
+	@Test
+	public void testIterator() {
+		ListIterator<Item> it = list.listIterator();
+		it.next();
+		it.next();
+		it.remove();
+		Item a = new Item(10);
+		it.next();
+		it.set(a);
+		assertFalse(items[2].isLinked());
+		it.add(new Item(11));
+		assertEquals(3, it.next().value);
+		assertEquals(3, it.previous().value);
+		StringBuilder sb = new StringBuilder();
+		for (Iterator<Item> i = list.iterator(); i.hasNext();) {
+			sb.append(i.next()).append(' ');
+		}
+		assertEquals("0 10 11 3 4 ", sb.toString());
+		assertEquals(10, list.get(1).value);
+	}
+
+	@Test
+	public void testSortRelinksInPlace() {
+		list.sort(Comparator.comparingInt((Item i) -> i.value).reversed());
+		assertArrayEquals(new Item[] { items[4], items[3], items[2], items[1], items[0] }, list.toArray());
+		assertEquals(items[3], items[4].next());
+		assertEquals(null, items[0].next());
+		assertEquals(items[0], list.get(4));
+		list.sort(Comparator.comparingInt((Item i) -> i.value % 2)); // Stable
+		assertArrayEquals(new Item[] { items[4], items[2], items[0], items[3], items[1] }, list.toArray());
+		assertEquals(5, list.size());
+	}
+
+	@Test
+	public void testSetToSameElement() {
+		assertEquals(items[2], list.set(2, items[2]));
+		assertTrue(items[2].isLinked());
+		list.replaceAll(i -> i);
+		assertArrayEquals(items, list.toArray());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSwapIsNotSupported() {
+		Collections.swap(list, 0, 1);
+	}
+}
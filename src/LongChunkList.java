@@ -0,0 +1,637 @@
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * A list of {@code long} values stored unboxed in a chain of fixed size
+ * arrays, for integer workloads which would otherwise hold a boxed value in
+ * every node of a {@code DLList}.
+ *
+ * The arrays, or chunks, are linked together in a {@code DLList}, so values
+ * can still be inserted and removed in the middle by shifting only the
+ * values of one chunk. A full chunk is split in two, and a chunk left less
+ * than half full by a removal is merged with a neighbour, or takes values
+ * from it if they would not fit in one chunk, so every chunk but the last is
+ * at least half full and the number of chunks stays within twice the number
+ * needed. Searches such as {@code indexOf} and aggregates such as
+ * {@code sum}, {@code min} and {@code max} scan each chunk as a plain array,
+ * following one link per chunk rather than one per value. The scanning loops
+ * are simple counted loops over primitive arrays, which the JIT compiler can
+ * unroll and, for the aggregates, turn into SIMD instructions itself.
+ *
+ * The list may also be used as a {@code List<Long>}, boxing values as they
+ * are read; nulls cannot be stored. Reading by index takes time proportional
+ * to the number of chunks between the index and the nearer end.
+ *
+ * @author David Brown
+ */
+public class LongChunkList extends AbstractList<Long> {
+
+	/**
+	 * Number of values each chunk can hold.
+	 */
+	static final int CHUNK = 1024;
+
+	/**
+	 * A fixed size array of values, of which the first {@code n} are in use.
+	 */
+	private static final class Chunk {
+
+		/**
+		 * The values.
+		 */
+		private final long[] v = new long[CHUNK];
+
+		/**
+		 * Number of values in use.
+		 */
+		private int n = 0;
+
+		/**
+		 * Handle of the chunk's node in {@code chunks}.
+		 */
+		private DLList.Handle<Chunk> handle;
+	}
+
+	/**
+	 * A position in one of the chunks.
+	 */
+	private static final class Position {
+
+		/**
+		 * The chunk.
+		 */
+		private final Chunk chunk;
+
+		/**
+		 * Index within the chunk.
+		 */
+		private final int offset;
+
+		/**
+		 * Initialise a position.
+		 *
+		 * @param chunk
+		 *            The chunk.
+		 * @param offset
+		 *            Index within the chunk.
+		 */
+		private Position(Chunk chunk, int offset) {
+			this.chunk = chunk;
+			this.offset = offset;
+		}
+	}
+
+	/**
+	 * The chunks, in order. None of them is empty, and all but the last are at
+	 * least half full. Every chunk keeps its
+	 * handle, so that chunks can be split, unlinked and walked backwards in
+	 * constant time.
+	 */
+	private final DLList<Chunk> chunks = new DLList<>();
+
+	/**
+	 * Number of values in the list.
+	 */
+	private int size = 0;
+
+	/**
+	 * Create an empty list.
+	 */
+	public LongChunkList() {
+	}
+
+	/**
+	 * Create a list holding the given values.
+	 *
+	 * @param values
+	 *            The initial values.
+	 */
+	public LongChunkList(long... values) {
+		for (long x : values) {
+			addLong(x);
+		}
+	}
+
+	/**
+	 * Find the chunk holding the value at an index.
+	 *
+	 * @param index
+	 *            An index, which must be valid.
+	 * @return The position of the value.
+	 */
+	private Position find(int index) {
+		if (index < size / 2) {
+			for (DLList.Handle<Chunk> h = chunks.firstHandle();; h = h.next()) {
+				if (index < h.get().n) {
+					return new Position(h.get(), index);
+				}
+				index -= h.get().n;
+			}
+		}
+		int base = size;
+		for (DLList.Handle<Chunk> h = chunks.lastHandle();; h = h.prev()) {
+			base -= h.get().n;
+			if (index >= base) {
+				return new Position(h.get(), index - base);
+			}
+		}
+	}
+
+	/**
+	 * @param index
+	 *            Index to check.
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index
+	 *            Index of a value.
+	 * @return The value at that index.
+	 */
+	public long getLong(int index) {
+		checkIndex(index);
+		Position p = find(index);
+		return p.chunk.v[p.offset];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#get(int)
+	 */
+	@Override
+	public Long get(int index) {
+		return getLong(index);
+	}
+
+	/**
+	 * Replace the value at an index.
+	 *
+	 * @param index
+	 *            Index of a value.
+	 * @param value
+	 *            The new value.
+	 * @return The value replaced.
+	 */
+	public long setLong(int index, long value) {
+		checkIndex(index);
+		Position p = find(index);
+		long old = p.chunk.v[p.offset];
+		p.chunk.v[p.offset] = value;
+		return old;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#set(int, java.lang.Object)
+	 */
+	@Override
+	public Long set(int index, Long element) {
+		return setLong(index, element);
+	}
+
+	/**
+	 * Append a value to the end of the list.
+	 *
+	 * @param value
+	 *            The value to append.
+	 */
+	public void addLong(long value) {
+		DLList.Handle<Chunk> last = chunks.lastHandle();
+		Chunk c = last == null ? null : last.get();
+		if (c == null || c.n == CHUNK) {
+			c = new Chunk();
+			c.handle = chunks.addAndGetHandle(c);
+		}
+		c.v[c.n++] = value;
+		size++;
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(Long e) {
+		addLong(e);
+		return true;
+	}
+
+	/**
+	 * Insert a value at an index, shifting the values after it within its
+	 * chunk. A full chunk is first split into two half full ones.
+	 *
+	 * @param index
+	 *            Index at which to insert, from 0 to the size.
+	 * @param value
+	 *            The value to insert.
+	 */
+	public void addLong(int index, long value) {
+		if (index == size) {
+			addLong(value);
+			return;
+		}
+		checkIndex(index);
+		Position p = find(index);
+		Chunk c = p.chunk;
+		int i = p.offset;
+		if (c.n == CHUNK) {
+			Chunk d = new Chunk();
+			int half = CHUNK / 2;
+			System.arraycopy(c.v, half, d.v, 0, CHUNK - half);
+			d.n = CHUNK - half;
+			c.n = half;
+			d.handle = chunks.insertAfter(c.handle, d);
+			if (i >= half) {
+				c = d;
+				i -= half;
+			}
+		}
+		System.arraycopy(c.v, i, c.v, i + 1, c.n - i);
+		c.v[i] = value;
+		c.n++;
+		size++;
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(int, java.lang.Object)
+	 */
+	@Override
+	public void add(int index, Long element) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		addLong(index, element);
+	}
+
+	/**
+	 * Remove the value at an index, shifting the values after it within its
+	 * chunk, and unlinking the chunk if it becomes empty.
+	 *
+	 * @param index
+	 *            Index of a value.
+	 * @return The value removed.
+	 */
+	public long removeLong(int index) {
+		checkIndex(index);
+		Position p = find(index);
+		long old = p.chunk.v[p.offset];
+		remove(p.chunk, p.offset);
+		return old;
+	}
+
+	/**
+	 * Remove a value from a chunk, shifting the values after it. If the chunk
+	 * is left less than half full it is merged with its next chunk, or its
+	 * previous one if it is the last, when their values fit in one chunk, and
+	 * otherwise takes half the difference from that neighbour. A chunk left
+	 * empty with no neighbour is unlinked.
+	 *
+	 * @param c
+	 *            The chunk.
+	 * @param i
+	 *            Index of the value within the chunk.
+	 * @return The position the value following the removed one has moved to,
+	 *         which may be one past the end of its chunk, or null if the list
+	 *         is now empty.
+	 */
+	private Position remove(Chunk c, int i) {
+		System.arraycopy(c.v, i + 1, c.v, i, c.n - i - 1);
+		c.n--;
+		size--;
+		modCount++;
+		if (c.n >= CHUNK / 2) {
+			return new Position(c, i);
+		}
+		DLList.Handle<Chunk> next = c.handle.next();
+		DLList.Handle<Chunk> prev = c.handle.prev();
+		if (next != null) {
+			Chunk d = next.get();
+			if (c.n + d.n <= CHUNK) {
+				System.arraycopy(d.v, 0, c.v, c.n, d.n);
+				c.n += d.n;
+				chunks.remove(d.handle);
+			} else {
+				int k = (d.n - c.n) / 2;
+				System.arraycopy(d.v, 0, c.v, c.n, k);
+				System.arraycopy(d.v, k, d.v, 0, d.n - k);
+				c.n += k;
+				d.n -= k;
+			}
+			return new Position(c, i);
+		} else if (prev != null) {
+			Chunk d = prev.get();
+			if (c.n + d.n <= CHUNK) {
+				System.arraycopy(c.v, 0, d.v, d.n, c.n);
+				Position p = new Position(d, d.n + i);
+				d.n += c.n;
+				chunks.remove(c.handle);
+				return p;
+			}
+			int k = (d.n - c.n) / 2;
+			System.arraycopy(c.v, 0, c.v, k, c.n);
+			System.arraycopy(d.v, d.n - k, c.v, 0, k);
+			c.n += k;
+			d.n -= k;
+			return new Position(c, i + k);
+		} else if (c.n == 0) {
+			chunks.remove(c.handle);
+			return null;
+		}
+		return new Position(c, i);
+	}
+
+	/**
+	 * @return The number of chunks.
+	 */
+	int chunks() {
+		return chunks.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#remove(int)
+	 */
+	@Override
+	public Long remove(int index) {
+		return removeLong(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#clear()
+	 */
+	@Override
+	public void clear() {
+		chunks.clear();
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * @param value
+	 *            The value to search for.
+	 * @return The index of the first occurrence of the value, or -1 if it is
+	 *         not in the list.
+	 */
+	public int indexOf(long value) {
+		int base = 0;
+		for (Chunk c : chunks) {
+			long[] v = c.v;
+			for (int i = 0, n = c.n; i < n; i++) {
+				if (v[i] == value) {
+					return base + i;
+				}
+			}
+			base += c.n;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param value
+	 *            The value to search for.
+	 * @return The index of the last occurrence of the value, or -1 if it is
+	 *         not in the list.
+	 */
+	public int lastIndexOf(long value) {
+		int base = size;
+		for (DLList.Handle<Chunk> h = chunks.lastHandle(); h != null; h = h.prev()) {
+			Chunk c = h.get();
+			long[] v = c.v;
+			base -= c.n;
+			for (int i = c.n - 1; i >= 0; i--) {
+				if (v[i] == value) {
+					return base + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param value
+	 *            The value to search for.
+	 * @return True if the value is in the list.
+	 */
+	public boolean contains(long value) {
+		return indexOf(value) >= 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#indexOf(java.lang.Object)
+	 */
+	@Override
+	public int indexOf(Object o) {
+		return o instanceof Long ? indexOf((long) (Long) o) : -1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#lastIndexOf(java.lang.Object)
+	 */
+	@Override
+	public int lastIndexOf(Object o) {
+		return o instanceof Long ? lastIndexOf((long) (Long) o) : -1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/**
+	 * @return The sum of the values, wrapping around on overflow. Zero if the
+	 *         list is empty.
+	 */
+	public long sum() {
+		long s = 0;
+		for (Chunk c : chunks) {
+			long[] v = c.v;
+			for (int i = 0, n = c.n; i < n; i++) {
+				s += v[i];
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * @return The smallest value.
+	 * @throws NoSuchElementException
+	 *             If the list is empty.
+	 */
+	public long min() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		long m = Long.MAX_VALUE;
+		for (Chunk c : chunks) {
+			long[] v = c.v;
+			for (int i = 0, n = c.n; i < n; i++) {
+				m = Math.min(m, v[i]);
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * @return The largest value.
+	 * @throws NoSuchElementException
+	 *             If the list is empty.
+	 */
+	public long max() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		long m = Long.MIN_VALUE;
+		for (Chunk c : chunks) {
+			long[] v = c.v;
+			for (int i = 0, n = c.n; i < n; i++) {
+				m = Math.max(m, v[i]);
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Pass every value to an action, in order, without boxing.
+	 *
+	 * @param action
+	 *            The action to perform on each value.
+	 */
+	public void forEachLong(LongConsumer action) {
+		Objects.requireNonNull(action);
+		int mc = modCount;
+		for (Chunk c : chunks) {
+			for (int i = 0; i < c.n; i++) {
+				action.accept(c.v[i]);
+			}
+			if (mc != modCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	/**
+	 * @return A new array holding the values, in order.
+	 */
+	public long[] toLongArray() {
+		long[] a = new long[size];
+		int base = 0;
+		for (Chunk c : chunks) {
+			System.arraycopy(c.v, 0, a, base, c.n);
+			base += c.n;
+		}
+		return a;
+	}
+
+	/**
+	 * Return an iterator which walks the chunks in order, rather than finding
+	 * each index again. Its {@code remove()} shifts values within one chunk,
+	 * so {@code remove(Object)}, {@code removeIf} and the like work without
+	 * finding each index either.
+	 *
+	 * @return An iterator over the values.
+	 */
+	@Override
+	public Iterator<Long> iterator() {
+		return new Iterator<Long>() {
+
+			/**
+			 * The expected modification count.
+			 */
+			private int xp = modCount;
+
+			/**
+			 * Handle of the chunk being returned, or null if there are no
+			 * more values.
+			 */
+			private DLList.Handle<Chunk> h = chunks.firstHandle();
+
+			/**
+			 * Index of the next value of the chunk.
+			 */
+			private int i = 0;
+
+			/**
+			 * True if the last value returned may be removed.
+			 */
+			private boolean removable = false;
+
+			@Override
+			public boolean hasNext() {
+				return h != null && (i < h.get().n || h.next() != null);
+			}
+
+			@Override
+			public Long next() {
+				if (xp != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (h != null && i == h.get().n) {
+					h = h.next();
+					i = 0;
+				}
+				if (h == null) {
+					throw new NoSuchElementException();
+				}
+				removable = true;
+				return h.get().v[i++];
+			}
+
+			@Override
+			public void remove() {
+				if (!removable) {
+					throw new IllegalStateException();
+				}
+				if (xp != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				// Values may move to or from a neighbouring chunk
+				Position p = LongChunkList.this.remove(h.get(), --i);
+				if (p == null) {
+					h = null;
+				} else {
+					h = p.chunk.handle;
+					i = p.offset;
+				}
+				removable = false;
+				xp = modCount;
+			}
+		};
+	}
+}
@@ -0,0 +1,199 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LongChunkListTestCase {
+
+	LongChunkList list;
+	List<Long> test;
+
+	@Before
+	public void setup() {
+		list = new LongChunkList();
+		test = new ArrayList<>();
+	}
+
+	void assertSame() {
+		assertEquals(test.size(), list.size());
+		assertArrayEquals(test.toArray(), list.toArray());
+		long[] a = list.toLongArray();
+		for (int i = 0; i < a.length; i++) {
+			assertEquals((long) test.get(i), a[i]);
+		}
+	}
+
+	@Test
+	public void testRandomOperations() {
+		Random rnd = new Random(7);
+		for (int i = 0; i < 20000; i++) {
+			int op = rnd.nextInt(10);
+			long x = rnd.nextInt(5000);
+			if (op < 5 || test.isEmpty()) {
+				list.addLong(x);
+				test.add(x);
+			} else if (op < 7) {
+				int j = rnd.nextInt(test.size() + 1);
+				list.addLong(j, x);
+				test.add(j, x);
+			} else if (op < 9) {
+				int j = rnd.nextInt(test.size());
+				assertEquals((long) test.remove(j), list.removeLong(j));
+			} else {
+				int j = rnd.nextInt(test.size());
+				assertEquals((long) test.set(j, x), list.setLong(j, x));
+			}
+		}
+		assertSame();
+		for (long x = 0; x < 5000; x += 37) {
+			assertEquals(test.indexOf(x), list.indexOf(x));
+			assertEquals(test.lastIndexOf(x), list.lastIndexOf(x));
+			assertEquals(test.contains(x), list.contains(x));
+		}
+		assertEquals(test.get(test.size() / 2), list.get(test.size() / 2));
+	}
+
+	@Test
+	public void testInsertIntoFullChunks() {
+		for (int i = 0; i < 3 * LongChunkList.CHUNK; i++) {
+			list.addLong(i);
+			test.add((long) i);
+		}
+		for (int i = 0; i < 2 * LongChunkList.CHUNK; i++) {
+			list.addLong(LongChunkList.CHUNK, -i);
+			test.add(LongChunkList.CHUNK, (long) -i);
+		}
+		assertSame();
+		while (!test.isEmpty()) {
+			assertEquals((long) test.remove(0), list.removeLong(0));
+		}
+		assertSame();
+	}
+
+	@Test
+	public void testAggregates() {
+		long sum = 0;
+		for (int i = -2000; i < 3000; i++) {
+			long x = (long) i * i * (i % 3 == 0 ? -1 : 1);
+			list.addLong(x);
+			sum += x;
+		}
+		assertEquals(sum, list.sum());
+		assertEquals(-2997L * 2997, list.min());
+		assertEquals(2999L * 2999, list.max());
+		long[] s = { 0 };
+		list.forEachLong(x -> s[0] += x);
+		assertEquals(sum, s[0]);
+	}
+
+	@Test
+	public void testBoxedView() {
+		list.add(5L);
+		list.add(0, 4L);
+		assertTrue(list.contains(5L));
+		assertFalse(list.contains((Object) 5)); // An Integer, not a Long
+		assertTrue(list.contains(5)); // Widened to long
+		assertEquals(-1, list.indexOf("5"));
+		assertEquals(1, list.indexOf((Object) 5L));
+		assertEquals(Long.valueOf(4), list.remove(0));
+		assertEquals(0, new LongChunkList().sum());
+	}
+
+	@Test
+	public void testRemoveObject() {
+		list = new LongChunkList(1, 2, 3, 4, 2);
+		assertTrue(list.remove(Long.valueOf(2)));
+		assertFalse(list.remove(Long.valueOf(7)));
+		assertArrayEquals(new long[] { 1, 3, 4, 2 }, list.toLongArray());
+		assertTrue(list.removeIf(x -> x == 3));
+		assertArrayEquals(new long[] { 1, 4, 2 }, list.toLongArray());
+	}
+
+	@Test
+	public void testIteratorRemoveAcrossChunks() {
+		for (int i = 0; i < 3 * LongChunkList.CHUNK + 5; i++) {
+			list.addLong(i);
+			test.add((long) i);
+		}
+		// Empties the whole middle chunk and the first values of the others
+		list.removeIf(x -> x < 3 || (x >= LongChunkList.CHUNK && x < 2 * LongChunkList.CHUNK) || x % 5 == 0);
+		test.removeIf(x -> x < 3 || (x >= LongChunkList.CHUNK && x < 2 * LongChunkList.CHUNK) || x % 5 == 0);
+		assertSame();
+		list.retainAll(List.of(7L, 3L * LongChunkList.CHUNK + 4));
+		test.retainAll(List.of(7L, 3L * LongChunkList.CHUNK + 4));
+		assertSame();
+		list.removeIf(x -> true);
+		assertTrue(list.isEmpty());
+		list.addLong(9);
+		assertEquals(9, list.getLong(0));
+
+		Iterator<Long> it = list.iterator();
+		try {
+			it.remove();
+			assertTrue(false);
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		it.next();
+		it.remove();
+		assertFalse(it.hasNext());
+		assertTrue(list.isEmpty());
+	}
+
+	@Test
+	public void testChunksMergeAfterRemoval() {
+		int n = 40 * LongChunkList.CHUNK;
+		for (int i = 0; i < n; i++) {
+			list.addLong(i);
+			test.add((long) i);
+		}
+		// Half full chunks, from inserting into the middle of full ones
+		for (int i = 0; i < n; i += 2) {
+			list.addLong(i, -i);
+			test.add(i, (long) -i);
+		}
+		assertSame();
+		list.removeIf(x -> x % 10 != 0);
+		test.removeIf(x -> x % 10 != 0);
+		assertSame();
+		assertTrue(list.chunks() <= 2 * list.size() / LongChunkList.CHUNK + 1);
+		Random rnd = new Random(3);
+		while (test.size() > 100) {
+			int j = rnd.nextInt(test.size());
+			assertEquals((long) test.remove(j), list.removeLong(j));
+		}
+		assertSame();
+		assertEquals(1, list.chunks());
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testMinOfEmpty() {
+		list.min();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBadIndex() {
+		list.addLong(1);
+		list.getLong(1);
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIteratorIsFailFast() {
+		list.addLong(1);
+		list.addLong(2);
+		Iterator<Long> it = list.iterator();
+		it.next();
+		list.addLong(3);
+		it.next();
+	}
+}
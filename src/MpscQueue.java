@@ -0,0 +1,182 @@
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free queue for many producer threads and a single consumer thread.
+ *
+ * As with {@code DLList}, the queue always holds a "dummy" node, here the
+ * node most recently consumed, so neither end is ever null. Producers append
+ * by atomically exchanging the tail for their new node and then linking the
+ * old tail to it, so {@code offer} completes in a bounded number of steps
+ * whatever the other producers are doing. The consumer follows the links
+ * from the dummy without any atomic read-modify-write.
+ *
+ * {@code offer} may be called by any thread. {@code poll}, {@code peek},
+ * {@code drain}, {@code drainTo} and {@code isEmpty} must only be called by
+ * the single consumer thread, and none of them ever waits for a producer. An
+ * element whose producer has exchanged the tail but not yet linked its node
+ * cannot be reached yet, so {@code poll} and {@code peek} may briefly return
+ * null, and the elements offered after it wait with it, while
+ * {@code isEmpty} already returns false.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class MpscQueue<T> {
+
+	/**
+	 * A node in the queue, linked only to its successor.
+	 *
+	 * @param <T>
+	 *            Type of object stored.
+	 */
+	private static final class Node<T> {
+
+		/**
+		 * Updater used to publish the link to the next node.
+		 */
+		@SuppressWarnings("rawtypes")
+		private static final AtomicReferenceFieldUpdater<Node, Node> NEXT = AtomicReferenceFieldUpdater
+				.newUpdater(Node.class, Node.class, "next");
+
+		/**
+		 * The element stored, or null in the dummy node.
+		 */
+		private T content;
+
+		/**
+		 * The next node, or null if this is the tail or its producer has not
+		 * linked it yet.
+		 */
+		private volatile Node<T> next;
+
+		/**
+		 * Initialise a node holding the given element.
+		 *
+		 * @param c
+		 *            The element to store.
+		 */
+		private Node(T c) {
+			content = c;
+		}
+	}
+
+	/**
+	 * The last node appended. Exchanged by producers.
+	 */
+	private final AtomicReference<Node<T>> tail;
+
+	/**
+	 * The dummy node; its successor holds the head of the queue. Only accessed
+	 * by the consumer.
+	 */
+	private Node<T> head;
+
+	/**
+	 * Create an empty queue.
+	 */
+	public MpscQueue() {
+		head = new Node<>(null);
+		tail = new AtomicReference<>(head);
+	}
+
+	/**
+	 * Append an element to the queue. May be called by any thread.
+	 *
+	 * @param e
+	 *            The element to add, must not be null.
+	 * @return Always true.
+	 */
+	public boolean offer(T e) {
+		Node<T> n = new Node<>(Objects.requireNonNull(e));
+		Node<T> prev = tail.getAndSet(n);
+		Node.NEXT.lazySet(prev, n);
+		return true;
+	}
+
+	/**
+	 * Remove the element at the head of the queue. Must only be called by the
+	 * consumer thread.
+	 *
+	 * @return The element, or null if the queue is empty or its first element
+	 *         is still being linked.
+	 */
+	public T poll() {
+		Node<T> n = head.next;
+		if (n == null) {
+			return null;
+		}
+		T e = n.content;
+		n.content = null; // n becomes the dummy
+		head = n;
+		return e;
+	}
+
+	/**
+	 * Return the element at the head of the queue without removing it. Must
+	 * only be called by the consumer thread.
+	 *
+	 * @return The element, or null if the queue is empty or its first element
+	 *         is still being linked.
+	 */
+	public T peek() {
+		Node<T> n = head.next;
+		return n == null ? null : n.content;
+	}
+
+	/**
+	 * Must only be called by the consumer thread.
+	 *
+	 * @return True if the queue held no elements when called.
+	 */
+	public boolean isEmpty() {
+		return head == tail.get();
+	}
+
+	/**
+	 * Remove up to {@code max} elements from the head of the queue, passing
+	 * each to the given action in order. Only elements already linked are
+	 * taken, so the call never waits on a producer. Must only be called by the
+	 * consumer thread.
+	 *
+	 * @param action
+	 *            Receives the removed elements.
+	 * @param max
+	 *            The maximum number of elements to remove.
+	 * @return The number of elements removed.
+	 */
+	public int drain(Consumer<? super T> action, int max) {
+		Objects.requireNonNull(action);
+		Node<T> h = head;
+		int n = 0;
+		for (Node<T> next; n < max && (next = h.next) != null; n++) {
+			T e = next.content;
+			next.content = null;
+			h = next;
+			head = h; // Advance before calling out, in case the action throws
+			action.accept(e);
+		}
+		return n;
+	}
+
+	/**
+	 * Remove up to {@code max} elements from the head of the queue, adding
+	 * them to the given collection in order. Must only be called by the
+	 * consumer thread.
+	 *
+	 * @param c
+	 *            The collection to add the removed elements to.
+	 * @param max
+	 *            The maximum number of elements to remove.
+	 * @return The number of elements removed.
+	 */
+	public int drainTo(Collection<? super T> c, int max) {
+		Objects.requireNonNull(c);
+		return drain(c::add, max);
+	}
+}
@@ -0,0 +1,97 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class MpscQueueTestCase {
+
+	@Test
+	public void testFifo() {
+		MpscQueue<Integer> q = new MpscQueue<>();
+		assertTrue(q.isEmpty());
+		assertNull(q.poll());
+		for (int i = 0; i < 100; i++) {
+			q.offer(i);
+		}
+		assertEquals(0, (int) q.peek());
+		assertEquals(0, (int) q.poll());
+		List<Integer> a = new ArrayList<>();
+		assertEquals(10, q.drainTo(a, 10));
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i + 1, (int) a.get(i));
+		}
+		assertEquals(89, q.drain(x -> {
+		}, 1000));
+		assertTrue(q.isEmpty());
+		assertNull(q.peek());
+		q.offer(5);
+		assertEquals(5, (int) q.poll());
+	}
+
+	@Test
+	public void testManyProducers() throws InterruptedException {
+		final int producers = 4, n = 100000;
+		MpscQueue<int[]> q = new MpscQueue<>();
+		Thread[] threads = new Thread[producers];
+		for (int p = 0; p < producers; p++) {
+			final int id = p;
+			threads[p] = new Thread(() -> {
+				for (int i = 0; i < n; i++) {
+					q.offer(new int[] { id, i });
+				}
+			});
+			threads[p].start();
+		}
+		int[] last = new int[producers];
+		Arrays.fill(last, -1);
+		int seen = 0;
+		while (seen < producers * n) {
+			int[] e = q.poll();
+			if (e == null) {
+				continue;
+			}
+			assertEquals(last[e[0]] + 1, e[1]); // Per producer order is kept
+			last[e[0]] = e[1];
+			seen++;
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertTrue(q.isEmpty());
+	}
+
+	@Test
+	public void testPollDoesNotWaitForProducer() throws ReflectiveOperationException {
+		MpscQueue<Integer> q = new MpscQueue<>();
+		q.offer(1);
+		// Exchange the tail as a producer would, without linking the node yet
+		Constructor<?> c = Class.forName("MpscQueue$Node").getDeclaredConstructor(Object.class);
+		c.setAccessible(true);
+		Object n = c.newInstance(2);
+		Field tail = MpscQueue.class.getDeclaredField("tail");
+		tail.setAccessible(true);
+		@SuppressWarnings("unchecked")
+		Object prev = ((AtomicReference<Object>) tail.get(q)).getAndSet(n);
+		q.offer(3);
+		assertEquals(1, (int) q.poll());
+		assertNull(q.peek()); // 2 is still being linked, and 3 waits behind it
+		assertNull(q.poll());
+		assertFalse(q.isEmpty());
+
+		Field next = n.getClass().getDeclaredField("next");
+		next.setAccessible(true);
+		next.set(prev, n); // The producer finishes
+		assertEquals(2, (int) q.poll());
+		assertEquals(3, (int) q.poll());
+		assertTrue(q.isEmpty());
+	}
+}
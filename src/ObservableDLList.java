@@ -0,0 +1,470 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@code DLList} which notifies listeners of the changes made to it, so that
+ * they can update state derived from the list without rescanning it.
+ *
+ * Changes are collected into a batch and delivered as a list of
+ * {@code Change} ranges once the batch ends. Consecutive changes to adjacent
+ * indices are coalesced, so appending a thousand elements is reported as a
+ * single inserted range. Each call to a mutating method (including bulk
+ * methods such as {@code addAll} and {@code removeIf}) is a batch of its own,
+ * unless it is made between {@code beginBatch()} and {@code endBatch()}, in
+ * which case everything up to the outermost {@code endBatch()} is delivered
+ * together.
+ *
+ * The changes in a batch are in the order they were made, and the indices of
+ * each are relative to the list after all earlier changes in the batch have
+ * been applied.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class ObservableDLList<T> extends TrackedDLList<T> {
+
+	/**
+	 * Generated {@code serialVersionUID}
+	 */
+	private static final long serialVersionUID = 6026918824511320735L;
+
+	/**
+	 * Receives the changes made to an {@code ObservableDLList}.
+	 *
+	 * @param <T>
+	 *            Type of object stored in the list.
+	 */
+	public interface Listener<T> {
+
+		/**
+		 * Called once per batch with the changes made during it.
+		 *
+		 * @param list
+		 *            The list which was changed.
+		 * @param changes
+		 *            The changes, in the order they were made.
+		 */
+		void changed(ObservableDLList<T> list, List<Change> changes);
+	}
+
+	/**
+	 * A range of indices which were inserted, removed or updated.
+	 */
+	public static final class Change {
+
+		/**
+		 * The kind of change made to a range.
+		 */
+		public enum Type {
+			INSERTED, REMOVED, UPDATED
+		}
+
+		/**
+		 * The kind of change.
+		 */
+		private final Type type;
+
+		/**
+		 * First index of the range.
+		 */
+		private final int from;
+
+		/**
+		 * Index after the last index of the range.
+		 */
+		private int to;
+
+		/**
+		 * Initialise a change to the range {@code [from, to)}.
+		 *
+		 * @param type
+		 *            The kind of change.
+		 * @param from
+		 *            First index of the range.
+		 * @param to
+		 *            Index after the last index of the range.
+		 */
+		private Change(Type type, int from, int to) {
+			this.type = type;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * @return The kind of change.
+		 */
+		public Type getType() {
+			return type;
+		}
+
+		/**
+		 * @return First index of the range.
+		 */
+		public int getFrom() {
+			return from;
+		}
+
+		/**
+		 * @return Index after the last index of the range.
+		 */
+		public int getTo() {
+			return to;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, from, to);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Change)) {
+				return false;
+			}
+			Change other = (Change) obj;
+			return type == other.type && from == other.from && to == other.to;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return type + " [" + from + ", " + to + ")";
+		}
+	}
+
+	/**
+	 * Listeners to notify at the end of each batch.
+	 */
+	private transient List<Listener<T>> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Changes made in the current batch.
+	 */
+	private transient List<Change> changes = new ArrayList<>();
+
+	/**
+	 * Number of batches currently open.
+	 */
+	private transient int depth = 0;
+
+	/**
+	 * Default initialisation of the list.
+	 */
+	public ObservableDLList() {
+		super();
+	}
+
+	/**
+	 * Add a listener to be notified of changes to this list.
+	 *
+	 * @param l
+	 *            The listener to add.
+	 */
+	public void addListener(Listener<T> l) {
+		listeners.add(Objects.requireNonNull(l));
+	}
+
+	/**
+	 * Remove a listener previously added with {@code addListener}.
+	 *
+	 * @param l
+	 *            The listener to remove.
+	 */
+	public void removeListener(Listener<T> l) {
+		listeners.remove(l);
+	}
+
+	/**
+	 * Start a batch. Changes are collected until the matching call to
+	 * {@code endBatch()}. Batches may be nested, in which case the changes are
+	 * delivered when the outermost batch ends.
+	 */
+	public void beginBatch() {
+		depth++;
+	}
+
+	/**
+	 * End a batch started by {@code beginBatch()}, notifying the listeners if
+	 * it was the outermost batch and anything changed.
+	 */
+	public void endBatch() {
+		if (depth == 0) {
+			throw new IllegalStateException();
+		}
+		if (--depth == 0 && !changes.isEmpty()) {
+			List<Change> c = Collections.unmodifiableList(changes);
+			changes = new ArrayList<>();
+			for (Listener<T> l : listeners) {
+				l.changed(this, c);
+			}
+		}
+	}
+
+	/**
+	 * Record a change, merging it into the previous change of the batch when
+	 * the two are adjacent, and notify the listeners if no batch is open.
+	 *
+	 * @param type
+	 *            The kind of change.
+	 * @param index
+	 *            Index of the element changed.
+	 */
+	private void record(Change.Type type, int index) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+		beginBatch();
+		Change last = changes.isEmpty() ? null : changes.get(changes.size() - 1);
+		if (!merge(last, type, index)) {
+			changes.add(new Change(type, index, index + 1));
+		}
+		endBatch();
+	}
+
+	/**
+	 * Try to fold a single element change into the previous change.
+	 *
+	 * @param last
+	 *            The previous change, or null if there is none.
+	 * @param type
+	 *            The kind of the new change.
+	 * @param index
+	 *            Index of the element changed.
+	 * @return True if the new change was folded into {@code last}.
+	 */
+	private boolean merge(Change last, Change.Type type, int index) {
+		if (last == null) {
+			return false;
+		}
+		if (last.type == Change.Type.INSERTED) {
+			if (type == Change.Type.INSERTED && index >= last.from && index <= last.to) {
+				last.to++;
+				return true;
+			}
+			if (type == Change.Type.UPDATED && index >= last.from && index < last.to) {
+				return true; // Listeners read the new element anyway
+			}
+			if (type == Change.Type.REMOVED && index >= last.from && index < last.to) {
+				if (--last.to == last.from) {
+					changes.remove(changes.size() - 1);
+				}
+				return true;
+			}
+		} else if (last.type == type) {
+			if (type == Change.Type.REMOVED && index == last.from) {
+				last.to++;
+				return true;
+			}
+			if (type == Change.Type.UPDATED && index >= last.from && index <= last.to) {
+				last.to = Math.max(last.to, index + 1);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#inserted(int, java.lang.Object)
+	 */
+	@Override
+	protected void inserted(int index, T element) {
+		record(Change.Type.INSERTED, index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#removed(int, java.lang.Object)
+	 */
+	@Override
+	protected void removed(int index, T element) {
+		record(Change.Type.REMOVED, index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#updated(int, java.lang.Object)
+	 */
+	@Override
+	protected void updated(int index, T element) {
+		record(Change.Type.UPDATED, index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#cleared(int)
+	 */
+	@Override
+	protected void cleared(int size) {
+		if (size > 0 && !listeners.isEmpty()) {
+			beginBatch();
+			changes.add(new Change(Change.Type.REMOVED, 0, size));
+			endBatch();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#addAll(java.util.Collection)
+	 */
+	@Override
+	public boolean addAll(Collection<? extends T> c) {
+		beginBatch();
+		try {
+			return super.addAll(c);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#addAll(int, java.util.Collection)
+	 */
+	@Override
+	public boolean addAll(int index, Collection<? extends T> c) {
+		beginBatch();
+		try {
+			return super.addAll(index, c);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#offerAll(java.util.Collection)
+	 */
+	@Override
+	public boolean offerAll(Collection<? extends T> c) {
+		beginBatch();
+		try {
+			return super.offerAll(c);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#drainTo(java.util.Collection, int)
+	 */
+	@Override
+	public int drainTo(Collection<? super T> c, int max) {
+		beginBatch();
+		try {
+			return super.drainTo(c, max);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#removeIf(java.util.function.Predicate)
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super T> filter) {
+		beginBatch();
+		try {
+			return super.removeIf(filter);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#replaceAll(java.util.function.UnaryOperator)
+	 */
+	@Override
+	public void replaceAll(UnaryOperator<T> operator) {
+		beginBatch();
+		try {
+			super.replaceAll(operator);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#sort(java.util.Comparator)
+	 */
+	@Override
+	public void sort(Comparator<? super T> c) {
+		beginBatch();
+		try {
+			super.sort(c);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#moveToFront(DLList.Handle)
+	 */
+	@Override
+	public void moveToFront(Handle<T> h) {
+		beginBatch();
+		try {
+			super.moveToFront(h);
+		} finally {
+			endBatch();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see TrackedDLList#moveToBack(DLList.Handle)
+	 */
+	@Override
+	public void moveToBack(Handle<T> h) {
+		beginBatch();
+		try {
+			super.moveToBack(h);
+		} finally {
+			endBatch();
+		}
+	}
+}
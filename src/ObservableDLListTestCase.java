@@ -0,0 +1,99 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ObservableDLListTestCase {
+
+	ObservableDLList<Integer> list;
+	List<List<ObservableDLList.Change>> batches;
+
+	@Before
+	public void setup() {
+		list = new ObservableDLList<>();
+		batches = new ArrayList<>();
+		list.addListener((l, c) -> batches.add(new ArrayList<>(c)));
+	}
+
+	static void assertChange(ObservableDLList.Change c, ObservableDLList.Change.Type type, int from, int to) {
+		assertEquals(type, c.getType());
+		assertEquals(from, c.getFrom());
+		assertEquals(to, c.getTo());
+	}
+
+	@Test
+	public void testSingleChanges() {
+		list.add(1);
+		list.add(2);
+		list.set(0, 5);
+		list.poll();
+		assertEquals(4, batches.size());
+		assertChange(batches.get(1).get(0), ObservableDLList.Change.Type.INSERTED, 1, 2);
+		assertChange(batches.get(2).get(0), ObservableDLList.Change.Type.UPDATED, 0, 1);
+		assertChange(batches.get(3).get(0), ObservableDLList.Change.Type.REMOVED, 0, 1);
+	}
+
+	@Test
+	public void testBulkOperationsAreCoalesced() {
+		list.addAll(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+		assertEquals(1, batches.get(0).size());
+		assertChange(batches.get(0).get(0), ObservableDLList.Change.Type.INSERTED, 0, 10);
+
+		list.removeIf(x -> x >= 3 && x < 7);
+		assertEquals(1, batches.get(1).size());
+		assertChange(batches.get(1).get(0), ObservableDLList.Change.Type.REMOVED, 3, 7);
+
+		list.replaceAll(x -> x * 2);
+		assertEquals(1, batches.get(2).size());
+		assertChange(batches.get(2).get(0), ObservableDLList.Change.Type.UPDATED, 0, 6);
+
+		list.clear();
+		assertChange(batches.get(3).get(0), ObservableDLList.Change.Type.REMOVED, 0, 6);
+		assertEquals(4, batches.size());
+	}
+
+	@Test
+	public void testExplicitBatch() {
+		list.beginBatch();
+		for (int i = 0; i < 5; i++) {
+			list.offer(i);
+		}
+		list.remove(2);
+		ListIterator<Integer> it = list.listIterator();
+		it.next();
+		it.set(100);
+		list.endBatch();
+		assertEquals(1, batches.size());
+		assertEquals(1, batches.get(0).size());
+		assertChange(batches.get(0).get(0), ObservableDLList.Change.Type.INSERTED, 0, 4);
+
+		list.beginBatch();
+		list.set(3, 7);
+		list.poll();
+		list.poll();
+		list.endBatch();
+		assertEquals(2, batches.get(1).size());
+		assertChange(batches.get(1).get(0), ObservableDLList.Change.Type.UPDATED, 3, 4);
+		assertChange(batches.get(1).get(1), ObservableDLList.Change.Type.REMOVED, 0, 2);
+		assertArrayEquals(new Object[] { 3, 7 }, list.toArray());
+	}
+
+	@Test
+	public void testHandleMoveIsOneBatch() {
+		list.addAll(Arrays.asList(0, 1, 2));
+		DLList.Handle<Integer> h = list.insertAfter(list.firstHandle(), 5);
+		assertChange(batches.get(1).get(0), ObservableDLList.Change.Type.INSERTED, 1, 2);
+		list.moveToBack(h);
+		assertEquals(3, batches.size());
+		assertEquals(2, batches.get(2).size());
+		assertChange(batches.get(2).get(0), ObservableDLList.Change.Type.REMOVED, 1, 2);
+		assertChange(batches.get(2).get(1), ObservableDLList.Change.Type.INSERTED, 3, 4);
+		assertArrayEquals(new Integer[] { 0, 1, 2, 5 }, list.toArray());
+	}
+}
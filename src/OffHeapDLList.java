@@ -0,0 +1,681 @@
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.AbstractSequentialList;
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * A doubly linked list of fixed size records which keeps its nodes outside of
+ * the Java heap, so that very large lists add nothing to the work done by the
+ * garbage collector.
+ *
+ * Nodes live in direct {@code ByteBuffer} chunks. Each node is a fixed size
+ * slot holding the index of its successor, the index of its predecessor and
+ * the encoded element, so links are plain integers rather than references.
+ * As in {@code DLList}, slot 0 is a "dummy" node whose next and previous
+ * links point to the first and last nodes of the list. Slots of removed nodes
+ * are kept on a free list and reused by later insertions.
+ *
+ * Elements are converted to and from their binary form by a {@code Codec},
+ * and must not be null. Once {@code close()} has been called the list can no
+ * longer be used and drops its buffers, but as for any direct buffer their
+ * memory is only returned to the operating system when the garbage collector
+ * finds them unreachable, which may be much later. Freeing it at once would
+ * need the foreign memory API, which is still incubating in Java 17.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class OffHeapDLList<T> extends AbstractSequentialList<T> implements Queue<T>, Closeable {
+
+	/**
+	 * Converts elements to and from a fixed number of bytes.
+	 *
+	 * @param <T>
+	 *            Type of object being converted.
+	 */
+	public interface Codec<T> {
+
+		/**
+		 * @return The number of bytes every encoded element occupies.
+		 */
+		int size();
+
+		/**
+		 * Write the given element into the buffer, starting at the given
+		 * offset.
+		 *
+		 * @param e
+		 *            The element to write.
+		 * @param b
+		 *            Buffer to write into.
+		 * @param off
+		 *            Offset of the first byte to write.
+		 */
+		void write(T e, ByteBuffer b, int off);
+
+		/**
+		 * Read an element previously written by {@code write}.
+		 *
+		 * @param b
+		 *            Buffer to read from.
+		 * @param off
+		 *            Offset of the first byte of the element.
+		 * @return The element read.
+		 */
+		T read(ByteBuffer b, int off);
+	}
+
+	/**
+	 * Bytes used for the next and previous links of every node.
+	 */
+	private static final int LINKS = 8;
+
+	/**
+	 * Log2 of the number of nodes in each chunk.
+	 */
+	private static final int SHIFT = 16;
+
+	/**
+	 * Mask extracting the position of a node within its chunk.
+	 */
+	private static final int MASK = (1 << SHIFT) - 1;
+
+	/**
+	 * Index of the dummy node.
+	 */
+	private static final int DUMMY = 0;
+
+	/**
+	 * Converts elements to and from bytes.
+	 */
+	private final Codec<T> codec;
+
+	/**
+	 * Size in bytes of a single node.
+	 */
+	private final int stride;
+
+	/**
+	 * Chunks of off-heap memory holding the nodes, or null once closed.
+	 */
+	private ByteBuffer[] chunks;
+
+	/**
+	 * Number of node slots handed out so far, including the dummy.
+	 */
+	private int used;
+
+	/**
+	 * Head of the list of free slots, linked through their next field, or the
+	 * dummy if there are none.
+	 */
+	private int free = DUMMY;
+
+	/**
+	 * Current size of the list. (Number of elements)
+	 */
+	private int size = 0;
+
+	/**
+	 * Create an empty list storing its elements with the given codec.
+	 *
+	 * @param codec
+	 *            Converts elements to and from bytes.
+	 */
+	public OffHeapDLList(Codec<T> codec) {
+		this.codec = Objects.requireNonNull(codec);
+		if (codec.size() < 0 || (long) (codec.size() + LINKS) << SHIFT > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException();
+		}
+		stride = codec.size() + LINKS;
+		chunks = new ByteBuffer[] { ByteBuffer.allocateDirect(stride << SHIFT) };
+		used = 1;
+		setNext(DUMMY, DUMMY);
+		setPrev(DUMMY, DUMMY);
+	}
+
+	/**
+	 * @param n
+	 *            Index of a node.
+	 * @return The chunk holding the node.
+	 */
+	private ByteBuffer chunk(int n) {
+		return chunks[n >>> SHIFT];
+	}
+
+	/**
+	 * @param n
+	 *            Index of a node.
+	 * @return Offset of the node within its chunk.
+	 */
+	private int offset(int n) {
+		return (n & MASK) * stride;
+	}
+
+	/**
+	 * @param n
+	 *            Index of a node.
+	 * @return Index of the node following it.
+	 */
+	private int next(int n) {
+		return chunk(n).getInt(offset(n));
+	}
+
+	/**
+	 * @param n
+	 *            Index of a node.
+	 * @return Index of the node preceding it.
+	 */
+	private int prev(int n) {
+		return chunk(n).getInt(offset(n) + 4);
+	}
+
+	/**
+	 * @param n
+	 *            Index of a node.
+	 * @param v
+	 *            New index of the node following it.
+	 */
+	private void setNext(int n, int v) {
+		chunk(n).putInt(offset(n), v);
+	}
+
+	/**
+	 * @param n
+	 *            Index of a node.
+	 * @param v
+	 *            New index of the node preceding it.
+	 */
+	private void setPrev(int n, int v) {
+		chunk(n).putInt(offset(n) + 4, v);
+	}
+
+	/**
+	 * @param n
+	 *            Index of a node.
+	 * @return The element stored in the node.
+	 */
+	private T content(int n) {
+		return codec.read(chunk(n), offset(n) + LINKS);
+	}
+
+	/**
+	 * @param n
+	 *            Index of a node.
+	 * @param e
+	 *            The element to store in the node.
+	 */
+	private void setContent(int n, T e) {
+		codec.write(e, chunk(n), offset(n) + LINKS);
+	}
+
+	/**
+	 * Throws an {@code IllegalStateException} if this list has been closed.
+	 */
+	private void ensureOpen() {
+		if (chunks == null) {
+			throw new IllegalStateException("closed");
+		}
+	}
+
+	/**
+	 * Take a node slot from the free list, or from the end of the allocated
+	 * memory, adding another chunk if needed.
+	 *
+	 * @return Index of an unused node.
+	 */
+	private int allocate() {
+		if (free != DUMMY) {
+			int n = free;
+			free = next(n);
+			return n;
+		}
+		if (used == Integer.MAX_VALUE) {
+			throw new IllegalStateException("list is full");
+		}
+		if ((used >>> SHIFT) == chunks.length) {
+			ByteBuffer[] c = new ByteBuffer[chunks.length + 1];
+			System.arraycopy(chunks, 0, c, 0, chunks.length);
+			c[chunks.length] = ByteBuffer.allocateDirect(stride << SHIFT);
+			chunks = c;
+		}
+		return used++;
+	}
+
+	/**
+	 * Insert a new node holding the given element before the given node.
+	 *
+	 * @param e
+	 *            The element to insert.
+	 * @param succ
+	 *            Index of the node which will follow the new one.
+	 */
+	private void linkBefore(T e, int succ) {
+		Objects.requireNonNull(e);
+		int n = allocate();
+		setContent(n, e);
+		int p = prev(succ);
+		setNext(p, n);
+		setPrev(n, p);
+		setNext(n, succ);
+		setPrev(succ, n);
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Remove the given node from the list and return its slot to the free
+	 * list.
+	 *
+	 * @param n
+	 *            Index of the node to remove.
+	 * @return The element the node held.
+	 */
+	private T unlink(int n) {
+		T o = content(n);
+		int p = prev(n), s = next(n);
+		setNext(p, s);
+		setPrev(s, p);
+		setNext(n, free);
+		free = n;
+		size--;
+		modCount++;
+		return o;
+	}
+
+	/**
+	 * Find the node at the given index, walking from whichever end of the list
+	 * is closer.
+	 *
+	 * @param index
+	 *            A valid index of an element, or the size of the list for the
+	 *            dummy.
+	 * @return Index of the node.
+	 */
+	private int node(int index) {
+		int n;
+		if (index < size / 2) {
+			n = next(DUMMY);
+			for (int i = 0; i < index; i++) {
+				n = next(n);
+			}
+		} else {
+			n = DUMMY;
+			for (int i = size; i > index; i--) {
+				n = prev(n);
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Checks if the given index is a valid index for an element currently in
+	 * this list, throwing an {@code IndexOutOfBoundsException} if it is not.
+	 *
+	 * @param i
+	 *            Index to check
+	 */
+	private void assertIndex(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(T e) {
+		ensureOpen();
+		linkBefore(e, DUMMY);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(int, java.lang.Object)
+	 */
+	@Override
+	public void add(int index, T element) {
+		ensureOpen();
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		linkBefore(element, node(index));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#get(int)
+	 */
+	@Override
+	public T get(int index) {
+		ensureOpen();
+		assertIndex(index);
+		return content(node(index));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#set(int, java.lang.Object)
+	 */
+	@Override
+	public T set(int index, T element) {
+		ensureOpen();
+		Objects.requireNonNull(element);
+		assertIndex(index);
+		int n = node(index);
+		T o = content(n);
+		setContent(n, element);
+		return o;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#remove(int)
+	 */
+	@Override
+	public T remove(int index) {
+		ensureOpen();
+		assertIndex(index);
+		return unlink(node(index));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#clear()
+	 */
+	@Override
+	public void clear() {
+		ensureOpen();
+		chunks = new ByteBuffer[] { chunks[0] };
+		used = 1;
+		free = DUMMY;
+		setNext(DUMMY, DUMMY);
+		setPrev(DUMMY, DUMMY);
+		size = 0;
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#offer(java.lang.Object)
+	 */
+	@Override
+	public boolean offer(T e) {
+		return add(e);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#remove()
+	 */
+	@Override
+	public T remove() {
+		ensureOpen();
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return unlink(next(DUMMY));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#poll()
+	 */
+	@Override
+	public T poll() {
+		ensureOpen();
+		return size == 0 ? null : unlink(next(DUMMY));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#element()
+	 */
+	@Override
+	public T element() {
+		ensureOpen();
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return content(next(DUMMY));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#peek()
+	 */
+	@Override
+	public T peek() {
+		ensureOpen();
+		return size == 0 ? null : content(next(DUMMY));
+	}
+
+	/**
+	 * Drop the buffers holding the nodes, so that their memory can be freed
+	 * once the garbage collector finds them unreachable. This does not free
+	 * the memory itself. The list cannot be used afterwards.
+	 */
+	@Override
+	public void close() {
+		chunks = null;
+		size = 0;
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#listIterator(int)
+	 */
+	@Override
+	public ListIterator<T> listIterator(int index) {
+		ensureOpen();
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return new It(index);
+	}
+
+	/**
+	 * List iterator over the nodes, behaving as specified by the
+	 * {@code ListIterator} interface.
+	 */
+	private class It implements ListIterator<T> {
+
+		/**
+		 * The expected modification count.
+		 */
+		private int xp = modCount;
+
+		/**
+		 * Node which will be returned by the next call to {@code next()}.
+		 */
+		private int cur;
+
+		/**
+		 * Node last returned by {@code next()} or {@code previous()}, or -1.
+		 */
+		private int lr = -1;
+
+		/**
+		 * Index of {@code cur}.
+		 */
+		private int p;
+
+		/**
+		 * Initialise the iterator at the given index.
+		 *
+		 * @param index
+		 *            Index of the first element to be returned by
+		 *            {@code next()}.
+		 */
+		private It(int index) {
+			cur = node(index);
+			p = index;
+		}
+
+		/**
+		 * Throws a {@code ConcurrentModificationException} if the list has
+		 * been modified other than through this iterator.
+		 */
+		private void checkModification() {
+			if (xp != modCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			return p != size;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public T next() {
+			checkModification();
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			lr = cur;
+			cur = OffHeapDLList.this.next(cur);
+			p++;
+			return content(lr);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#hasPrevious()
+		 */
+		@Override
+		public boolean hasPrevious() {
+			return p != 0;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#previous()
+		 */
+		@Override
+		public T previous() {
+			checkModification();
+			if (!hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			cur = prev(cur);
+			lr = cur;
+			p--;
+			return content(lr);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#nextIndex()
+		 */
+		@Override
+		public int nextIndex() {
+			return p;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#previousIndex()
+		 */
+		@Override
+		public int previousIndex() {
+			return p - 1;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			checkModification();
+			if (lr == -1) {
+				throw new IllegalStateException();
+			}
+			if (lr == cur) {
+				cur = OffHeapDLList.this.next(lr);
+			} else {
+				p--;
+			}
+			unlink(lr);
+			lr = -1;
+			xp = modCount;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#set(java.lang.Object)
+		 */
+		@Override
+		public void set(T e) {
+			checkModification();
+			Objects.requireNonNull(e);
+			if (lr == -1) {
+				throw new IllegalStateException();
+			}
+			setContent(lr, e);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#add(java.lang.Object)
+		 */
+		@Override
+		public void add(T e) {
+			checkModification();
+			linkBefore(e, cur);
+			lr = -1;
+			p++;
+			xp = modCount;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+import java.util.ListIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class OffHeapDLListTestCase {
+
+	static final OffHeapDLList.Codec<Long> LONGS = new OffHeapDLList.Codec<Long>() {
+		@Override
+		public int size() {
+			return 8;
+		}
+
+		@Override
+		public void write(Long e, ByteBuffer b, int off) {
+			b.putLong(off, e);
+		}
+
+		@Override
+		public Long read(ByteBuffer b, int off) {
+			return b.getLong(off);
+		}
+	};
+
+	LinkedList<Long> test;
+	OffHeapDLList<Long> list;
+
+	@Before
+	public void setup() {
+		test = new LinkedList<>();
+		list = new OffHeapDLList<>(LONGS);
+	}
+
+	@Test
+	public void testQueueOperations() {
+		for (long i = 0; i < 200000; i++) {
+			list.offer(i);
+			test.offer(i);
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(test.poll(), list.poll());
+		}
+		assertEquals(test.peek(), list.peek());
+		assertEquals(test.size(), list.size());
+		assertEquals(test.get(150000), list.get(150000));
+		list.clear();
+		assertNull(list.poll());
+		assertTrue(list.isEmpty());
+	}
+
+	@Test
+	public void testListOperations() {
+		for (long i = 0; i < 100; i++) {
+			list.add(i);
+			test.add(i);
+		}
+		list.add(50, -1L);
+		test.add(50, -1L);
+		list.set(10, 1000L);
+		test.set(10, 1000L);
+		assertEquals(test.remove(70), list.remove(70));
+		assertEquals(test.indexOf(-1L), list.indexOf(-1L));
+		assertArrayEquals(test.toArray(), list.toArray());
+
+		ListIterator<Long> it = list.listIterator(), ti = test.listIterator();
+		while (it.hasNext()) {
+			long x = it.next();
+			ti.next();
+			if (x % 2 == 0) {
+				it.remove();
+				ti.remove();
+			} else {
+				it.add(x * 100);
+				ti.add(x * 100);
+			}
+		}
+		assertArrayEquals(test.toArray(), list.toArray());
+		for (long i = 0; i < 100; i++) {
+			list.add(i);
+			test.add(i);
+		}
+		assertArrayEquals(test.toArray(), list.toArray());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testClosed() {
+		list.add(1L);
+		list.close();
+		list.peek();
+	}
+}
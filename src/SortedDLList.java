@@ -0,0 +1,603 @@
+import java.util.AbstractCollection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A doubly linked list which keeps its elements sorted, using express links
+ * in the manner of a skip list to find positions in logarithmic time.
+ *
+ * Every element is in a doubly linked chain which, as in {@code DLList},
+ * starts and ends at a "dummy" node, so iterating in either direction is a
+ * plain walk along the chain. In addition each element is given a random
+ * number of forward express links, each level having about a quarter of the
+ * elements of the level below. Searches start on the highest level and drop
+ * down a level whenever the next element would overshoot, so {@code add},
+ * {@code contains}, {@code remove} and the navigation methods take expected
+ * O(log n) time.
+ *
+ * Elements are ordered by a {@code Comparator}, or by their natural ordering
+ * if none is given, and elements which compare as equal are kept in the
+ * order they were added. Null elements are not permitted.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class SortedDLList<T> extends AbstractCollection<T> {
+
+	/**
+	 * Maximum number of levels, including the chain itself. With a quarter of
+	 * the nodes reaching each further level, this is enough for any list
+	 * whose size fits in an {@code int}.
+	 */
+	private static final int MAX_LEVEL = 16;
+
+	/**
+	 * A node of the list.
+	 */
+	private final class Node {
+
+		/**
+		 * The element stored.
+		 */
+		private final T content;
+
+		/**
+		 * The next node in the chain.
+		 */
+		private Node next;
+
+		/**
+		 * The previous node in the chain, or null once removed.
+		 */
+		private Node prev;
+
+		/**
+		 * Express links; {@code skip[i]} is the next node which reaches level
+		 * {@code i + 1}, or null if there is none.
+		 */
+		private final Node[] skip;
+
+		/**
+		 * Initialise a node.
+		 *
+		 * @param c
+		 *            The element to store.
+		 * @param levels
+		 *            The number of levels the node reaches, at least one.
+		 */
+		@SuppressWarnings("unchecked")
+		private Node(T c, int levels) {
+			content = c;
+			skip = levels > 1 ? (Node[]) new SortedDLList<?>.Node[levels - 1] : null;
+		}
+
+		/**
+		 * @return The number of levels the node reaches.
+		 */
+		private int levels() {
+			return skip == null ? 1 : skip.length + 1;
+		}
+	}
+
+	/**
+	 * The ordering of the elements.
+	 */
+	private final Comparator<? super T> comparator;
+
+	/**
+	 * The dummy node, which reaches every level.
+	 */
+	private final Node dummy = new Node(null, MAX_LEVEL);
+
+	/**
+	 * Number of levels in use.
+	 */
+	private int levels = 1;
+
+	/**
+	 * Number of elements in the list.
+	 */
+	private int size = 0;
+
+	/**
+	 * Number of structural modifications, used to make iterators fail-fast.
+	 */
+	private int modCount = 0;
+
+	/**
+	 * State of the generator used to pick the levels of new nodes.
+	 */
+	private int seed = 0x2545F491;
+
+	/**
+	 * Create a list ordered by the natural ordering of its elements.
+	 */
+	public SortedDLList() {
+		this(null);
+	}
+
+	/**
+	 * Create a list ordered by the given comparator.
+	 *
+	 * @param comparator
+	 *            The ordering, or null for the natural ordering of the
+	 *            elements.
+	 */
+	public SortedDLList(Comparator<? super T> comparator) {
+		this.comparator = comparator;
+		dummy.next = dummy;
+		dummy.prev = dummy;
+	}
+
+	/**
+	 * @return The comparator ordering the list, or null if the natural
+	 *         ordering is used.
+	 */
+	public Comparator<? super T> comparator() {
+		return comparator;
+	}
+
+	/**
+	 * Compare two elements.
+	 *
+	 * @param a
+	 *            The first element.
+	 * @param b
+	 *            The second element.
+	 * @return As {@code Comparator.compare}.
+	 */
+	@SuppressWarnings("unchecked")
+	private int compare(Object a, T b) {
+		return comparator == null ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((T) a, b);
+	}
+
+	/**
+	 * The node following the given one on a level.
+	 *
+	 * @param n
+	 *            The node.
+	 * @param level
+	 *            The level.
+	 * @return The next node on that level, or null at the end.
+	 */
+	private Node forward(Node n, int level) {
+		if (level == 0) {
+			return n.next == dummy ? null : n.next;
+		}
+		return n.skip[level - 1];
+	}
+
+	/**
+	 * Find, on each level, the last node which precedes the given element.
+	 *
+	 * @param o
+	 *            The element to search for.
+	 * @param inclusive
+	 *            If true, nodes equal to the element count as preceding it, so
+	 *            the search finds the last equal node rather than stopping
+	 *            before the first one.
+	 * @param preds
+	 *            If not null, receives the node found on each level in use.
+	 * @return The node found on the chain, which may be the dummy.
+	 */
+	private Node search(Object o, boolean inclusive, Node[] preds) {
+		Node n = dummy;
+		for (int level = levels - 1; level >= 0; level--) {
+			for (Node f; (f = forward(n, level)) != null;) {
+				int c = compare(o, f.content);
+				if (c < 0 || (c == 0 && !inclusive)) {
+					break;
+				}
+				n = f;
+			}
+			if (preds != null) {
+				preds[level] = n;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * @return A random number of levels for a new node, each extra level
+	 *         having a probability of one quarter.
+	 */
+	private int randomLevels() {
+		int x = seed;
+		x ^= x << 13;
+		x ^= x >>> 17;
+		x ^= x << 5;
+		seed = x;
+		int l = 1;
+		for (; l < MAX_LEVEL && (x & 3) == 0; x >>>= 2) {
+			l++;
+		}
+		return l;
+	}
+
+	/**
+	 * Insert an element at its place in the order, after any elements equal
+	 * to it.
+	 *
+	 * @param o
+	 *            The element to add.
+	 * @return Always true.
+	 */
+	@Override
+	public boolean add(T o) {
+		Objects.requireNonNull(o);
+		@SuppressWarnings("unchecked")
+		Node[] preds = (Node[]) new SortedDLList<?>.Node[MAX_LEVEL];
+		Node p = search(o, true, preds);
+		int l = randomLevels();
+		for (; levels < l; levels++) {
+			preds[levels] = dummy;
+		}
+		Node e = new Node(o, l);
+		e.next = p.next;
+		e.prev = p;
+		p.next.prev = e;
+		p.next = e;
+		for (int i = 1; i < l; i++) {
+			e.skip[i - 1] = preds[i].skip[i - 1];
+			preds[i].skip[i - 1] = e;
+		}
+		size++;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Unlink a node from the chain and from each of its express levels.
+	 *
+	 * @param e
+	 *            The node to remove.
+	 */
+	private void unlink(Node e) {
+		int l = e.levels();
+		if (l > 1) {
+			@SuppressWarnings("unchecked")
+			Node[] preds = (Node[]) new SortedDLList<?>.Node[MAX_LEVEL];
+			search(e.content, false, preds);
+			for (int i = 1; i < l; i++) {
+				Node p = preds[i];
+				while (p.skip[i - 1] != e) {
+					p = p.skip[i - 1]; // Step over equal elements added before e
+				}
+				p.skip[i - 1] = e.skip[i - 1];
+			}
+			while (levels > 1 && dummy.skip[levels - 2] == null) {
+				levels--;
+			}
+		}
+		e.prev.next = e.next;
+		e.next.prev = e.prev;
+		e.prev = null;
+		size--;
+		modCount++;
+	}
+
+	/**
+	 * Find the first node equal to the given element.
+	 *
+	 * @param o
+	 *            The element.
+	 * @return The node, or null if there is none.
+	 */
+	private Node find(Object o) {
+		Node n = search(o, false, null).next;
+		return n != dummy && compare(o, n.content) == 0 ? n : null;
+	}
+
+	/**
+	 * Check whether an element equal to the given one, according to the
+	 * ordering of the list, is present.
+	 *
+	 * @param o
+	 *            The element to look for.
+	 * @return True if such an element is in the list.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		Objects.requireNonNull(o);
+		return find(o) != null;
+	}
+
+	/**
+	 * Remove the first element equal to the given one, according to the
+	 * ordering of the list.
+	 *
+	 * @param o
+	 *            The element to remove.
+	 * @return True if an element was removed.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		Objects.requireNonNull(o);
+		Node n = find(o);
+		if (n == null) {
+			return false;
+		}
+		unlink(n);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#clear()
+	 */
+	@Override
+	public void clear() {
+		for (Node e = dummy.next; e != dummy; e = e.next) {
+			e.prev = null;
+		}
+		dummy.next = dummy;
+		dummy.prev = dummy;
+		for (int i = 0; i < MAX_LEVEL - 1; i++) {
+			dummy.skip[i] = null;
+		}
+		levels = 1;
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * @return The smallest element.
+	 * @throws NoSuchElementException
+	 *             If the list is empty.
+	 */
+	public T first() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return dummy.next.content;
+	}
+
+	/**
+	 * @return The largest element.
+	 * @throws NoSuchElementException
+	 *             If the list is empty.
+	 */
+	public T last() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+		return dummy.prev.content;
+	}
+
+	/**
+	 * Remove and return the smallest element.
+	 *
+	 * @return The element, or null if the list is empty.
+	 */
+	public T pollFirst() {
+		if (size == 0) {
+			return null;
+		}
+		Node e = dummy.next;
+		unlink(e);
+		return e.content;
+	}
+
+	/**
+	 * Remove and return the largest element.
+	 *
+	 * @return The element, or null if the list is empty.
+	 */
+	public T pollLast() {
+		if (size == 0) {
+			return null;
+		}
+		Node e = dummy.prev;
+		unlink(e);
+		return e.content;
+	}
+
+	/**
+	 * @param o
+	 *            The element to compare with.
+	 * @return The greatest element less than or equal to {@code o}, or null
+	 *         if there is none.
+	 */
+	public T floor(T o) {
+		return search(Objects.requireNonNull(o), true, null).content;
+	}
+
+	/**
+	 * @param o
+	 *            The element to compare with.
+	 * @return The greatest element strictly less than {@code o}, or null if
+	 *         there is none.
+	 */
+	public T lower(T o) {
+		return search(Objects.requireNonNull(o), false, null).content;
+	}
+
+	/**
+	 * @param o
+	 *            The element to compare with.
+	 * @return The least element greater than or equal to {@code o}, or null
+	 *         if there is none.
+	 */
+	public T ceiling(T o) {
+		return search(Objects.requireNonNull(o), false, null).next.content;
+	}
+
+	/**
+	 * @param o
+	 *            The element to compare with.
+	 * @return The least element strictly greater than {@code o}, or null if
+	 *         there is none.
+	 */
+	public T higher(T o) {
+		return search(Objects.requireNonNull(o), true, null).next.content;
+	}
+
+	/**
+	 * Return an iterator over the elements in ascending order.
+	 *
+	 * @return The iterator.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new It(dummy.next, null, false, true);
+	}
+
+	/**
+	 * Return an iterator over the elements in descending order.
+	 *
+	 * @return The iterator.
+	 */
+	public Iterator<T> descendingIterator() {
+		return new It(dummy.prev, null, false, false);
+	}
+
+	/**
+	 * Return an iterator over the elements between two bounds, in ascending
+	 * order. Finding the start of the range takes O(log n) time, after which
+	 * each element is a single step along the chain.
+	 *
+	 * @param from
+	 *            The lower bound, or null for none.
+	 * @param fromInclusive
+	 *            True if elements equal to {@code from} are included.
+	 * @param to
+	 *            The upper bound, or null for none.
+	 * @param toInclusive
+	 *            True if elements equal to {@code to} are included.
+	 * @return The iterator.
+	 */
+	public Iterator<T> range(T from, boolean fromInclusive, T to, boolean toInclusive) {
+		if (from != null && to != null) {
+			int c = compare(from, to);
+			if (c > 0) {
+				throw new IllegalArgumentException("from is greater than to");
+			}
+		}
+		Node start = from == null ? dummy.next : search(from, !fromInclusive, null).next;
+		return new It(start, to, toInclusive, true);
+	}
+
+	/**
+	 * Iterator which walks along the chain, optionally stopping at a bound.
+	 */
+	private class It implements Iterator<T> {
+
+		/**
+		 * The expected modification count.
+		 */
+		private int xp = modCount;
+
+		/**
+		 * Node which will be returned by the next call to {@code next()}.
+		 */
+		private Node cur;
+
+		/**
+		 * Node last returned by {@code next()}, or null.
+		 */
+		private Node lr = null;
+
+		/**
+		 * The bound at which to stop, or null for none.
+		 */
+		private final T to;
+
+		/**
+		 * True if elements equal to the bound are included.
+		 */
+		private final boolean toInclusive;
+
+		/**
+		 * True to walk forwards, false to walk backwards.
+		 */
+		private final boolean ascending;
+
+		/**
+		 * Initialise the iterator.
+		 *
+		 * @param start
+		 *            The first node to return.
+		 * @param to
+		 *            The bound at which to stop, or null for none.
+		 * @param toInclusive
+		 *            True if elements equal to the bound are included.
+		 * @param ascending
+		 *            True to walk forwards, false to walk backwards.
+		 */
+		private It(Node start, T to, boolean toInclusive, boolean ascending) {
+			cur = start;
+			this.to = to;
+			this.toInclusive = toInclusive;
+			this.ascending = ascending;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			if (cur == dummy) {
+				return false;
+			}
+			if (to != null) {
+				int c = compare(cur.content, to);
+				return c < 0 || (c == 0 && toInclusive);
+			}
+			return true;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public T next() {
+			if (xp != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			lr = cur;
+			cur = ascending ? cur.next : cur.prev;
+			return lr.content;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			if (xp != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (lr == null) {
+				throw new IllegalStateException();
+			}
+			unlink(lr);
+			lr = null;
+			xp = modCount;
+		}
+	}
+}
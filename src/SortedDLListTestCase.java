@@ -0,0 +1,103 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SortedDLListTestCase {
+
+	List<Integer> test;
+	SortedDLList<Integer> list;
+
+	@Before
+	public void setup() {
+		test = new ArrayList<>();
+		list = new SortedDLList<>();
+	}
+
+	@Test
+	public void testMatchesSortedList() {
+		Random r = new Random(7);
+		for (int i = 0; i < 20000; i++) {
+			int x = r.nextInt(500);
+			if (r.nextInt(3) == 0) {
+				assertEquals(test.remove(Integer.valueOf(x)), list.remove(x));
+			} else {
+				test.add(x);
+				list.add(x);
+			}
+			if (i % 1000 == 0) {
+				Collections.sort(test);
+				assertArrayEquals(test.toArray(), list.toArray());
+			}
+		}
+		Collections.sort(test);
+		assertArrayEquals(test.toArray(), list.toArray());
+		assertEquals(test.size(), list.size());
+		for (int x = -1; x <= 500; x++) {
+			assertEquals(test.contains(x), list.contains(x));
+		}
+		assertEquals(test.get(0), list.first());
+		assertEquals(test.get(test.size() - 1), list.last());
+	}
+
+	@Test
+	public void testNavigation() {
+		for (int x : new int[] { 10, 30, 20, 30, 40 }) {
+			list.add(x);
+		}
+		assertEquals(20, (int) list.floor(25));
+		assertEquals(30, (int) list.floor(30));
+		assertEquals(20, (int) list.lower(30));
+		assertEquals(30, (int) list.ceiling(25));
+		assertEquals(40, (int) list.higher(30));
+		assertEquals(null, list.lower(10));
+		assertEquals(null, list.higher(40));
+
+		List<Integer> r = new ArrayList<>();
+		list.range(20, false, 40, true).forEachRemaining(r::add);
+		assertEquals(Arrays.asList(30, 30, 40), r);
+		r.clear();
+		list.range(null, false, 30, false).forEachRemaining(r::add);
+		assertEquals(Arrays.asList(10, 20), r);
+		r.clear();
+		list.descendingIterator().forEachRemaining(r::add);
+		assertEquals(Arrays.asList(40, 30, 30, 20, 10), r);
+
+		assertEquals(10, (int) list.pollFirst());
+		assertEquals(40, (int) list.pollLast());
+		assertEquals(3, list.size());
+	}
+
+	@Test
+	public void testEqualElementsKeepInsertionOrder() {
+		SortedDLList<String> s = new SortedDLList<>(Comparator.comparing(String::length));
+		for (String x : new String[] { "bb", "a", "cc", "d", "ee" }) {
+			s.add(x);
+		}
+		assertArrayEquals(new String[] { "a", "d", "bb", "cc", "ee" }, s.toArray());
+		Iterator<String> it = s.iterator();
+		it.next();
+		it.next();
+		it.next();
+		it.next();
+		it.remove(); // The second of three equal elements
+		assertArrayEquals(new String[] { "a", "d", "bb", "ee" }, s.toArray());
+		assertTrue(s.remove("xx"));
+		assertArrayEquals(new String[] { "a", "d", "ee" }, s.toArray());
+		s.clear();
+		assertFalse(s.contains("a"));
+		s.add("q");
+		assertEquals("q", s.first());
+	}
+}
@@ -0,0 +1,497 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An unbounded FIFO queue which keeps only its head and tail in memory,
+ * writing the middle of a long backlog to files.
+ *
+ * Elements are added to an in-memory tail segment, a {@code DLList}. Once the
+ * tail holds {@code segmentSize} elements while older elements are waiting,
+ * it is encoded with a {@code Codec} and written to a new file in the spill
+ * directory with one sequential write, and a fresh tail is started. Elements
+ * are taken from an in-memory head segment; when it runs out it is refilled
+ * by reading back the oldest file, which is then deleted, or once no files
+ * remain by taking over the tail. At most about two segments of elements are
+ * therefore held in memory however long the queue grows, while a queue which
+ * keeps up with its producers never touches the disk at all.
+ *
+ * Spilled elements can still be seen by {@code iterator()}, which reads the
+ * files without removing them, but elements can only be removed from the
+ * head. Spill files are not a journal and do not survive the queue: they are
+ * deleted by {@code clear()} and {@code close()}. The queue is not
+ * thread-safe.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class SpillingQueue<T> extends AbstractQueue<T> implements Closeable {
+
+	/**
+	 * Default number of elements in each segment.
+	 */
+	private static final int DEFAULT_SEGMENT_SIZE = 1 << 14;
+
+	/**
+	 * A segment of elements which has been written to a file.
+	 */
+	private static final class Segment {
+
+		/**
+		 * The file holding the elements.
+		 */
+		private final Path file;
+
+		/**
+		 * Number of elements in the file.
+		 */
+		private final int count;
+
+		/**
+		 * Initialise a segment.
+		 *
+		 * @param file
+		 *            The file holding the elements.
+		 * @param count
+		 *            Number of elements in the file.
+		 */
+		private Segment(Path file, int count) {
+			this.file = file;
+			this.count = count;
+		}
+	}
+
+	/**
+	 * Directory in which segment files are created.
+	 */
+	private final Path dir;
+
+	/**
+	 * Converts elements to and from bytes.
+	 */
+	private final DurableDLList.Codec<T> codec;
+
+	/**
+	 * Number of elements in a full segment.
+	 */
+	private final int segmentSize;
+
+	/**
+	 * The oldest elements, taken by {@code poll()}.
+	 */
+	private DLList<T> head = new DLList<>();
+
+	/**
+	 * Segments written to files, oldest first, holding the elements between
+	 * the head and the tail.
+	 */
+	private final DLList<Segment> spilled = new DLList<>();
+
+	/**
+	 * The newest elements, appended by {@code offer()}.
+	 */
+	private DLList<T> tail = new DLList<>();
+
+	/**
+	 * Number of elements in the segment files.
+	 */
+	private long spilledCount = 0;
+
+	/**
+	 * Number of changes made to the queue, used by iterators to detect
+	 * concurrent modification.
+	 */
+	private int modCount = 0;
+
+	/**
+	 * Number of times the head has been refilled. Refilling does not change
+	 * the elements, so it is not a modification, but it replaces the lists
+	 * which iterators are walking.
+	 */
+	private int refills = 0;
+
+	/**
+	 * Create a queue spilling to the given directory with the default segment
+	 * size.
+	 *
+	 * @param dir
+	 *            Directory in which segment files are created.
+	 * @param codec
+	 *            Converts elements to and from bytes.
+	 * @throws IOException
+	 *             If the directory cannot be created.
+	 */
+	public SpillingQueue(Path dir, DurableDLList.Codec<T> codec) throws IOException {
+		this(dir, codec, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Create a queue spilling to the given directory.
+	 *
+	 * @param dir
+	 *            Directory in which segment files are created.
+	 * @param codec
+	 *            Converts elements to and from bytes.
+	 * @param segmentSize
+	 *            Number of elements written to each file. The head and the
+	 *            tail each hold at most this many elements in memory.
+	 * @throws IOException
+	 *             If the directory cannot be created.
+	 */
+	public SpillingQueue(Path dir, DurableDLList.Codec<T> codec, int segmentSize) throws IOException {
+		Objects.requireNonNull(dir);
+		Objects.requireNonNull(codec);
+		if (segmentSize < 1) {
+			throw new IllegalArgumentException("Segment size must be positive");
+		}
+		this.dir = dir;
+		this.codec = codec;
+		this.segmentSize = segmentSize;
+		Files.createDirectories(dir);
+	}
+
+	/**
+	 * Add an element at the tail of the queue, spilling the tail to a file if
+	 * it has become full.
+	 *
+	 * @param e
+	 *            The element to add.
+	 * @return Always true.
+	 * @throws UncheckedIOException
+	 *             If the tail could not be spilled. The element is not added,
+	 *             and the queue is left as it was.
+	 */
+	@Override
+	public boolean offer(T e) {
+		Objects.requireNonNull(e);
+		if (spilled.isEmpty() && tail.isEmpty() && head.size() < segmentSize) {
+			head.add(e);
+		} else {
+			tail.add(e);
+			if (tail.size() >= segmentSize) {
+				try {
+					spill();
+				} catch (RuntimeException | Error x) {
+					tail.remove(tail.size() - 1);
+					throw x;
+				}
+			}
+		}
+		modCount++;
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#poll()
+	 */
+	@Override
+	public T poll() {
+		if (!refill()) {
+			return null;
+		}
+		modCount++;
+		return head.poll();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#peek()
+	 */
+	@Override
+	public T peek() {
+		return refill() ? head.peek() : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#size()
+	 */
+	@Override
+	public int size() {
+		return (int) Math.min(Integer.MAX_VALUE, head.size() + spilledCount + tail.size());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#isEmpty()
+	 */
+	@Override
+	public boolean isEmpty() {
+		return head.isEmpty() && spilled.isEmpty() && tail.isEmpty();
+	}
+
+	/**
+	 * @return Number of elements currently held in files rather than memory.
+	 */
+	public long spilledSize() {
+		return spilledCount;
+	}
+
+	/**
+	 * @return Number of segment files currently held.
+	 */
+	public int spilledSegments() {
+		return spilled.size();
+	}
+
+	/**
+	 * Write the tail to a new segment file and start an empty tail. If this
+	 * fails, the file is deleted and the tail is left as it was.
+	 */
+	private void spill() {
+		ByteArrayOutputStream buf = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(buf);
+		Path file = null;
+		try {
+			for (T e : tail) {
+				codec.write(e, out);
+			}
+			file = Files.createTempFile(dir, "spill", ".seg");
+			try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				ByteBuffer b = ByteBuffer.wrap(buf.toByteArray());
+				while (b.hasRemaining()) {
+					ch.write(b);
+				}
+			}
+			spilled.add(new Segment(file, tail.size()));
+		} catch (IOException x) {
+			if (file != null) {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException y) {
+					x.addSuppressed(y);
+				}
+			}
+			throw new UncheckedIOException(x);
+		}
+		spilledCount += tail.size();
+		tail = new DLList<>();
+	}
+
+	/**
+	 * Read the elements of a segment file, in order.
+	 *
+	 * @param s
+	 *            The segment.
+	 * @return The elements.
+	 */
+	private DLList<T> read(Segment s) {
+		DLList<T> l = new DLList<>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(s.file)))) {
+			for (int i = 0; i < s.count; i++) {
+				l.add(codec.read(in));
+			}
+		} catch (IOException x) {
+			throw new UncheckedIOException(x);
+		}
+		return l;
+	}
+
+	/**
+	 * Make sure the head holds an element if the queue is not empty, reading
+	 * back the oldest segment file or taking over the tail.
+	 *
+	 * @return False if the queue is empty.
+	 */
+	private boolean refill() {
+		if (!head.isEmpty()) {
+			return true;
+		}
+		Segment s = spilled.peek();
+		if (s != null) {
+			head = read(s);
+			spilled.poll();
+			spilledCount -= s.count;
+			delete(s);
+			refills++;
+			return true;
+		}
+		if (tail.isEmpty()) {
+			return false;
+		}
+		DLList<T> t = head;
+		head = tail;
+		tail = t;
+		refills++;
+		return true;
+	}
+
+	/**
+	 * Delete the file of a segment.
+	 *
+	 * @param s
+	 *            The segment.
+	 */
+	private static void delete(Segment s) {
+		try {
+			Files.deleteIfExists(s.file);
+		} catch (IOException x) {
+			throw new UncheckedIOException(x);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#clear()
+	 */
+	@Override
+	public void clear() {
+		for (Segment s; (s = spilled.poll()) != null;) {
+			delete(s);
+		}
+		spilledCount = 0;
+		head.clear();
+		tail.clear();
+		modCount++;
+	}
+
+	/**
+	 * Delete every segment file. The queue is left empty and may still be
+	 * used.
+	 */
+	@Override
+	public void close() {
+		clear();
+	}
+
+	/**
+	 * Return an iterator over the elements, oldest first. Spilled segments are
+	 * read from their files as the iterator reaches them, one at a time. The
+	 * iterator does not support {@code remove()}. It is not disturbed by
+	 * {@code peek()} refilling the head, but then starts again from the new
+	 * head and skips the elements it has already returned.
+	 *
+	 * @return An iterator over the elements.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new It();
+	}
+
+	/**
+	 * Iterator over the head, each spilled segment and then the tail.
+	 */
+	private class It implements Iterator<T> {
+
+		/**
+		 * The expected modification count.
+		 */
+		private final int xp = modCount;
+
+		/**
+		 * The refill count when the iterator was last positioned.
+		 */
+		private int rf;
+
+		/**
+		 * Number of elements returned so far.
+		 */
+		private long returned = 0;
+
+		/**
+		 * Iterator over the segment being returned.
+		 */
+		private Iterator<T> cur;
+
+		/**
+		 * Iterator over the spilled segments still to be read.
+		 */
+		private Iterator<Segment> segs;
+
+		/**
+		 * True once {@code cur} is iterating over the tail.
+		 */
+		private boolean atTail;
+
+		/**
+		 * Initialise an iterator at the head.
+		 */
+		private It() {
+			start();
+		}
+
+		/**
+		 * Position the iterator at the start of the head.
+		 */
+		private void start() {
+			rf = refills;
+			cur = head.iterator();
+			segs = spilled.iterator();
+			atTail = false;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			if (xp != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (rf != refills) {
+				// The same elements are now held in different lists
+				start();
+				for (long i = 0; i < returned; i++) {
+					advance();
+					cur.next();
+				}
+			}
+			return advance();
+		}
+
+		/**
+		 * Move {@code cur} on to the next list with an element left, if any.
+		 *
+		 * @return True if there is a next element.
+		 */
+		private boolean advance() {
+			while (!cur.hasNext() && !atTail) {
+				if (segs.hasNext()) {
+					cur = read(segs.next()).iterator();
+				} else {
+					cur = tail.iterator();
+					atTail = true;
+				}
+			}
+			return cur.hasNext();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			returned++;
+			return cur.next();
+		}
+	}
+}
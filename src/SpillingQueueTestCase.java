@@ -0,0 +1,209 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpillingQueueTestCase {
+
+	Path dir;
+	SpillingQueue<Integer> queue;
+	LinkedList<Integer> test;
+
+	@Before
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("spill");
+		queue = new SpillingQueue<>(dir, DurableDLListTestCase.INTS, 10);
+		test = new LinkedList<>();
+	}
+
+	@After
+	public void teardown() throws IOException {
+		queue.close();
+		try (Stream<Path> s = Files.list(dir)) {
+			for (Path p : (Iterable<Path>) s::iterator) {
+				Files.delete(p);
+			}
+		}
+		Files.delete(dir);
+	}
+
+	long files() throws IOException {
+		try (Stream<Path> s = Files.list(dir)) {
+			return s.count();
+		}
+	}
+
+	@Test
+	public void testKeepingUpNeverSpills() throws IOException {
+		for (int i = 0; i < 1000; i++) {
+			queue.offer(i);
+			queue.offer(-i);
+			assertEquals(i, (int) queue.poll());
+			assertEquals(-i, (int) queue.poll());
+		}
+		assertEquals(0, files());
+		assertTrue(queue.isEmpty());
+		assertEquals(null, queue.poll());
+	}
+
+	@Test
+	public void testBacklogIsSpilledAndReadBackInOrder() throws IOException {
+		for (int i = 0; i < 95; i++) {
+			queue.offer(i);
+			test.offer(i);
+		}
+		assertEquals(95, queue.size());
+		assertEquals(8, queue.spilledSegments()); // 10 in the head, 5 in the tail
+		assertEquals(80, queue.spilledSize());
+		assertEquals(8, files());
+		assertArrayEquals(test.toArray(), queue.toArray());
+
+		for (int i = 0; i < 40; i++) {
+			assertEquals(test.poll(), queue.poll());
+		}
+		for (int i = 95; i < 120; i++) {
+			queue.offer(i);
+			test.offer(i);
+		}
+		assertArrayEquals(test.toArray(), queue.toArray());
+		while (!test.isEmpty()) {
+			assertEquals(test.peek(), queue.peek());
+			assertEquals(test.poll(), queue.poll());
+		}
+		assertTrue(queue.isEmpty());
+		assertEquals(0, queue.spilledSize());
+		assertEquals(0, files());
+	}
+
+	@Test
+	public void testClearDeletesFiles() throws IOException {
+		for (int i = 0; i < 50; i++) {
+			queue.offer(i);
+		}
+		assertTrue(files() > 0);
+		queue.clear();
+		assertEquals(0, files());
+		assertEquals(0, queue.size());
+		queue.offer(1);
+		assertEquals(1, (int) queue.poll());
+		queue.close();
+	}
+
+	@Test
+	public void testIteratorIsFailFast() {
+		for (int i = 0; i < 30; i++) {
+			queue.offer(i);
+		}
+		List<Integer> seen = new ArrayList<>();
+		Iterator<Integer> it = queue.iterator();
+		for (int i = 0; i < 15; i++) {
+			seen.add(it.next());
+		}
+		queue.offer(30);
+		try {
+			it.next();
+			assertTrue(false);
+		} catch (ConcurrentModificationException e) {
+			// Expected
+		}
+		assertFalse(seen.contains(30));
+	}
+
+	@Test
+	public void testPeekDuringIteration() throws IOException {
+		queue = new SpillingQueue<>(dir, DurableDLListTestCase.INTS, 4);
+		for (int i = 0; i < 6; i++) {
+			queue.offer(i);
+		}
+		for (int i = 0; i < 4; i++) {
+			queue.poll();
+		}
+		Iterator<Integer> it = queue.iterator();
+		assertEquals(4, (int) queue.peek()); // Takes over the tail
+		assertEquals(2, queue.size());
+		assertTrue(it.hasNext());
+		assertEquals(4, (int) it.next());
+		assertEquals(5, (int) it.next());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testPeekRefillingFromSegmentDuringIteration() throws IOException {
+		queue = new SpillingQueue<>(dir, DurableDLListTestCase.INTS, 4);
+		for (int i = 0; i < 20; i++) {
+			queue.offer(i);
+		}
+		for (int i = 0; i < 4; i++) {
+			queue.poll();
+		}
+		Iterator<Integer> it = queue.iterator();
+		List<Integer> seen = new ArrayList<>();
+		seen.add(it.next());
+		seen.add(it.next());
+		assertEquals(4, (int) queue.peek()); // Reads back a segment
+		while (it.hasNext()) {
+			seen.add(it.next());
+		}
+		assertEquals(new ArrayList<>(queue), seen);
+		assertEquals(16, seen.size());
+	}
+
+	@Test
+	public void testFailedSpillLeavesQueueUnchanged() throws IOException {
+		queue = new SpillingQueue<>(dir, new DurableDLList.Codec<Integer>() {
+			@Override
+			public void write(Integer e, DataOutput out) throws IOException {
+				if (e < 0) {
+					throw new IOException("negative");
+				}
+				out.writeInt(e);
+			}
+
+			@Override
+			public Integer read(DataInput in) throws IOException {
+				return in.readInt();
+			}
+		}, 4);
+		for (int i = 0; i < 7; i++) {
+			queue.offer(i);
+			test.offer(i);
+		}
+		Iterator<Integer> it = queue.iterator();
+		try {
+			queue.offer(-1); // Fills the tail, which fails to spill
+			assertTrue(false);
+		} catch (UncheckedIOException e) {
+			// Expected
+		}
+		assertEquals(0, (int) it.next()); // Not modified
+		assertEquals(7, queue.size());
+		assertArrayEquals(test.toArray(), queue.toArray());
+		assertEquals(0, files());
+		queue.offer(7);
+		test.offer(7);
+		assertEquals(1, files());
+		assertArrayEquals(test.toArray(), queue.toArray());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSegmentSizeMustBePositive() throws IOException {
+		new SpillingQueue<>(dir, DurableDLListTestCase.INTS, 0);
+	}
+}
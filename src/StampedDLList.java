@@ -0,0 +1,768 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * A thread-safe {@code DLList} for read-mostly use, guarded by a
+ * {@code StampedLock} so that readers do not block each other.
+ *
+ * {@code size}, {@code isEmpty}, {@code get}, {@code peek}, {@code contains},
+ * {@code indexOf} and {@code lastIndexOf} first run without taking any lock,
+ * and only retry under the read lock if a write happened in the meantime. The
+ * other reading methods, including the parallel searches, take the read lock,
+ * and every method which changes the list takes the write lock.
+ *
+ * Iterators work on a snapshot of the list taken when they are created, so
+ * they never throw {@code ConcurrentModificationException} and do not
+ * support {@code remove}, {@code set} or {@code add}. {@code forEach} walks
+ * the list itself under the read lock; the action must not modify the list.
+ *
+ * Handles may be used to change the list from any thread, but walking them
+ * with {@code Handle.next()} and {@code Handle.prev()} is not synchronised.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class StampedDLList<T> extends DLList<T> {
+
+	/**
+	 * Generated {@code serialVersionUID}
+	 */
+	private static final long serialVersionUID = 8718424905863402587L;
+
+	/**
+	 * Guards every access to the list.
+	 */
+	private final transient StampedLock lock = new StampedLock();
+
+	/**
+	 * Default initialisation of the list.
+	 */
+	public StampedDLList() {
+		super();
+	}
+
+	/**
+	 * Run a read without locking, falling back to the read lock if a write
+	 * happened while it ran. A read which overlaps a write may see the list
+	 * in an inconsistent state and throw, in which case it is also retried
+	 * under the lock.
+	 *
+	 * @param op
+	 *            The read to run.
+	 * @return The result of the read.
+	 */
+	private <R> R optimistic(Supplier<R> op) {
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			try {
+				R r = op.get();
+				if (lock.validate(stamp)) {
+					return r;
+				}
+			} catch (RuntimeException e) {
+				// Overlapped a write, retry under the lock
+			}
+		}
+		return locked(op);
+	}
+
+	/**
+	 * Run a read under the read lock.
+	 *
+	 * @param op
+	 *            The read to run.
+	 * @return The result of the read.
+	 */
+	private <R> R locked(Supplier<R> op) {
+		long stamp = lock.readLock();
+		try {
+			return op.get();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Run a change under the write lock.
+	 *
+	 * @param op
+	 *            The change to run.
+	 * @return The result of the change.
+	 */
+	private <R> R write(Supplier<R> op) {
+		long stamp = lock.writeLock();
+		try {
+			return op.get();
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#size()
+	 */
+	@Override
+	public int size() {
+		long stamp = lock.tryOptimisticRead();
+		int n = super.size();
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				n = super.size();
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return n;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#isEmpty()
+	 */
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#get(int)
+	 */
+	@Override
+	public T get(int index) {
+		return optimistic(() -> super.get(index));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#peek()
+	 */
+	@Override
+	public T peek() {
+		return optimistic(super::peek);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return optimistic(() -> super.contains(o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#indexOf(java.lang.Object)
+	 */
+	@Override
+	public int indexOf(Object o) {
+		return optimistic(() -> super.indexOf(o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#lastIndexOf(java.lang.Object)
+	 */
+	@Override
+	public int lastIndexOf(Object o) {
+		return optimistic(() -> super.lastIndexOf(o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelIndexOf(java.lang.Object)
+	 */
+	@Override
+	public int parallelIndexOf(Object o) {
+		return locked(() -> super.parallelIndexOf(o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelLastIndexOf(java.lang.Object)
+	 */
+	@Override
+	public int parallelLastIndexOf(Object o) {
+		return locked(() -> super.parallelLastIndexOf(o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelContains(java.lang.Object)
+	 */
+	@Override
+	public boolean parallelContains(Object o) {
+		return locked(() -> super.parallelContains(o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#element()
+	 */
+	@Override
+	public T element() {
+		return locked(super::element);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#containsAll(java.util.Collection)
+	 */
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		return locked(() -> super.containsAll(c));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#toArray()
+	 */
+	@Override
+	public T[] toArray() {
+		return locked(super::toArray);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#toArray(java.lang.Object[])
+	 */
+	@Override
+	public <E> E[] toArray(E[] a) {
+		Objects.requireNonNull(a);
+		return Arrays.asList(toArray()).toArray(a);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#subList(int, int)
+	 */
+	@Override
+	public List<T> subList(int fromIndex, int toIndex) {
+		return locked(() -> super.subList(fromIndex, toIndex));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#iterator()
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return listIterator(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#listIterator()
+	 */
+	@Override
+	public ListIterator<T> listIterator() {
+		return listIterator(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#listIterator(int)
+	 */
+	@Override
+	public ListIterator<T> listIterator(int index) {
+		return Collections.unmodifiableList(Arrays.asList(toArray())).listIterator(index);
+	}
+
+	/**
+	 * Iterators over this list already work on a snapshot and never fail, so
+	 * this is the same as {@code iterator()}.
+	 *
+	 * @return An iterator over a snapshot of the list.
+	 */
+	@Override
+	public Iterator<T> stableIterator() {
+		return iterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#addAndGetHandle(java.lang.Object)
+	 */
+	@Override
+	public Handle<T> addAndGetHandle(T o) {
+		return write(() -> super.addAndGetHandle(o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#insertBefore(DLList.Handle, java.lang.Object)
+	 */
+	@Override
+	public Handle<T> insertBefore(Handle<T> h, T o) {
+		return write(() -> super.insertBefore(h, o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#insertAfter(DLList.Handle, java.lang.Object)
+	 */
+	@Override
+	public Handle<T> insertAfter(Handle<T> h, T o) {
+		return write(() -> super.insertAfter(h, o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#remove(DLList.Handle)
+	 */
+	@Override
+	public T remove(Handle<T> h) {
+		return write(() -> super.remove(h));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#moveToFront(DLList.Handle)
+	 */
+	@Override
+	public void moveToFront(Handle<T> h) {
+		write(() -> {
+			super.moveToFront(h);
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#moveToBack(DLList.Handle)
+	 */
+	@Override
+	public void moveToBack(Handle<T> h) {
+		write(() -> {
+			super.moveToBack(h);
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#firstHandle()
+	 */
+	@Override
+	public Handle<T> firstHandle() {
+		return locked(() -> super.firstHandle());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#lastHandle()
+	 */
+	@Override
+	public Handle<T> lastHandle() {
+		return locked(() -> super.lastHandle());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#defragment()
+	 */
+	@Override
+	public void defragment() {
+		write(() -> {
+			super.defragment();
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#setAutoDefragment(double)
+	 */
+	@Override
+	public void setAutoDefragment(double factor) {
+		write(() -> {
+			super.setAutoDefragment(factor);
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Iterable#forEach(java.util.function.Consumer)
+	 */
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		Objects.requireNonNull(action);
+		locked(() -> {
+			for (Iterator<T> it = super.iterator(); it.hasNext();) {
+				action.accept(it.next());
+			}
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return locked(super::hashCode);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return locked(() -> super.equals(obj));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#clone()
+	 */
+	@Override
+	public DLList<T> clone() {
+		return locked(super::clone);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(T o) {
+		return write(() -> super.add(o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#offer(java.lang.Object)
+	 */
+	@Override
+	public boolean offer(T e) {
+		return write(() -> super.add(e));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(int, java.lang.Object)
+	 */
+	@Override
+	public void add(int index, T element) {
+		write(() -> {
+			super.add(index, element);
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#addAll(java.util.Collection)
+	 */
+	@Override
+	public boolean addAll(Collection<? extends T> c) {
+		Objects.requireNonNull(c);
+		Object[] a = c.toArray(); // Outside the lock, c may be this list
+		return offerAll(a);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#offerAll(java.util.Collection)
+	 */
+	@Override
+	public boolean offerAll(Collection<? extends T> c) {
+		Objects.requireNonNull(c);
+		return offerAll(c.toArray());
+	}
+
+	/**
+	 * Append the given elements under the write lock.
+	 *
+	 * @param a
+	 *            The elements to append.
+	 * @return True if the list changed.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean offerAll(Object[] a) {
+		return write(() -> super.offerAll(Arrays.asList((T[]) a)));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#addAll(int, java.util.Collection)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean addAll(int index, Collection<? extends T> c) {
+		Objects.requireNonNull(c);
+		Object[] a = c.toArray();
+		return write(() -> super.addAll(index, Arrays.asList((T[]) a)));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#set(int, java.lang.Object)
+	 */
+	@Override
+	public T set(int index, T element) {
+		return write(() -> super.set(index, element));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#remove(int)
+	 */
+	@Override
+	public T remove(int index) {
+		return write(() -> super.remove(index));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object o) {
+		return write(() -> super.remove(o));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#removeAll(java.util.Collection)
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		return write(() -> super.removeAll(c));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#retainAll(java.util.Collection)
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		return write(() -> super.retainAll(c));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#clear()
+	 */
+	@Override
+	public void clear() {
+		write(() -> {
+			super.clear();
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#remove()
+	 */
+	@Override
+	public T remove() {
+		return write(() -> {
+			if (super.size() == 0) {
+				throw new NoSuchElementException();
+			}
+			return super.remove(0);
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#poll()
+	 */
+	@Override
+	public T poll() {
+		return write(() -> super.size() == 0 ? null : super.remove(0));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#drainTo(java.util.Collection, int)
+	 */
+	@Override
+	public int drainTo(Collection<? super T> c, int max) {
+		return write(() -> super.drainTo(c, max));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#drainTo(java.util.Collection)
+	 */
+	@Override
+	public int drainTo(Collection<? super T> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#pollBatch(int)
+	 */
+	@Override
+	public List<T> pollBatch(int n) {
+		List<T> r = new ArrayList<>();
+		drainTo(r, n);
+		return r;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#removeIf(java.util.function.Predicate)
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super T> filter) {
+		Objects.requireNonNull(filter);
+		return write(() -> {
+			boolean r = false;
+			for (Iterator<T> it = super.iterator(); it.hasNext();) {
+				if (filter.test(it.next())) {
+					it.remove();
+					r = true;
+				}
+			}
+			return r;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#replaceAll(java.util.function.UnaryOperator)
+	 */
+	@Override
+	public void replaceAll(UnaryOperator<T> operator) {
+		Objects.requireNonNull(operator);
+		write(() -> {
+			for (ListIterator<T> it = super.listIterator(); it.hasNext();) {
+				it.set(operator.apply(it.next()));
+			}
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelForEach(java.util.function.Consumer)
+	 */
+	@Override
+	public void parallelForEach(Consumer<? super T> action) {
+		locked(() -> {
+			super.parallelForEach(action);
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelReplaceAll(java.util.function.UnaryOperator)
+	 */
+	@Override
+	public void parallelReplaceAll(UnaryOperator<T> operator) {
+		write(() -> {
+			super.parallelReplaceAll(operator);
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelRemoveIf(java.util.function.Predicate)
+	 */
+	@Override
+	public boolean parallelRemoveIf(Predicate<? super T> filter) {
+		return write(() -> super.parallelRemoveIf(filter));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#sort(java.util.Comparator)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void sort(Comparator<? super T> c) {
+		write(() -> {
+			Object[] a = super.toArray();
+			Arrays.sort(a, (Comparator<Object>) c);
+			ListIterator<T> it = super.listIterator();
+			for (Object e : a) {
+				it.next();
+				it.set((T) e);
+			}
+			return null;
+		});
+	}
+}
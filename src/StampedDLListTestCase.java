@@ -0,0 +1,85 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StampedDLListTestCase {
+
+	LinkedList<Integer> test;
+	StampedDLList<Integer> list;
+
+	@Before
+	public void setup() {
+		test = new LinkedList<>();
+		list = new StampedDLList<>();
+	}
+
+	@Test
+	public void testBehavesAsList() {
+		for (int i = 0; i < 100; i++) {
+			test.add(i);
+			list.add(i);
+		}
+		assertEquals(test.get(70), list.get(70));
+		assertEquals(test.indexOf(42), list.indexOf(42));
+		assertTrue(list.contains(99));
+		assertEquals(test.poll(), list.poll());
+		assertEquals(test.remove(), list.remove());
+		test.removeIf(x -> x % 3 == 0);
+		list.removeIf(x -> x % 3 == 0);
+		test.replaceAll(x -> -x);
+		list.replaceAll(x -> -x);
+		test.sort(null);
+		list.sort(null);
+		list.addAll(list);
+		test.addAll(new LinkedList<>(test));
+		assertArrayEquals(test.toArray(), list.toArray());
+		assertArrayEquals(test.toArray(new Integer[0]), list.toArray(new Integer[0]));
+		assertEquals(test.subList(0, 5), list.pollBatch(5));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testIteratorIsSnapshot() {
+		list.addAll(Arrays.asList(1, 2, 3));
+		Iterator<Integer> it = list.iterator();
+		list.clear();
+		assertEquals(1, (int) it.next());
+		it.remove();
+	}
+
+	@Test
+	public void testReadsDuringWrites() throws InterruptedException {
+		for (int i = 0; i < 1000; i++) {
+			list.add(i);
+		}
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread writer = new Thread(() -> {
+			for (int i = 0; running.get(); i++) {
+				list.add(1000 + i);
+				list.add(1000, -1);
+				list.remove(1000);
+				list.remove(list.size() - 1);
+			}
+		});
+		writer.start();
+		for (int i = 0; i < 20000; i++) {
+			int k = i % 1000;
+			assertEquals(k, (int) list.get(k));
+			assertTrue(list.contains(k));
+			assertEquals(k, list.indexOf(k));
+			assertFalse(list.contains(-2));
+			assertEquals(0, (int) list.peek());
+		}
+		running.set(false);
+		writer.join();
+		assertEquals(1000, list.size());
+	}
+}
@@ -0,0 +1,706 @@
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@code DLList} for many threads appending concurrently, such as log
+ * collectors, where a single lock around every {@code add} stops scaling.
+ *
+ * Appending threads are spread over a number of stripes by a hash of the
+ * thread. Each stripe holds a private chain of elements guarded by its own
+ * lock, and {@code add}, {@code offer} and {@code offerAll} only ever take the
+ * lock of the calling thread's stripe. The chains are spliced onto the tail of
+ * the list, in constant time per stripe, by {@code flush()}, which every other
+ * method calls first. A thread always appends to the same stripe, so the
+ * elements added by one thread keep their order; elements added by different
+ * threads since the last flush are ordered by stripe.
+ *
+ * Methods other than {@code add}, {@code offer} and {@code offerAll} are
+ * synchronized on the list. As with {@code Collections.synchronizedList},
+ * callers must hold the list's monitor while using an iterator; appending
+ * threads never touch the spliced elements, so they cannot invalidate it.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public class StripedDLList<T> extends DLList<T> {
+
+	/**
+	 * Generated {@code serialVersionUID}
+	 */
+	private static final long serialVersionUID = 3316154937716838153L;
+
+	/**
+	 * Chains of elements appended since the last flush. The length is a power
+	 * of two. Each chain is guarded by its own monitor.
+	 */
+	private final transient Chain[] stripes;
+
+	/**
+	 * Create a list with one stripe per available processor, rounded up to a
+	 * power of two.
+	 */
+	public StripedDLList() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a list with the given number of stripes, rounded up to a power of
+	 * two.
+	 *
+	 * @param n
+	 *            Number of stripes.
+	 */
+	@SuppressWarnings("unchecked")
+	public StripedDLList(int n) {
+		if (n < 1 || n > 1 << 16) {
+			throw new IllegalArgumentException();
+		}
+		int c = Integer.highestOneBit(n);
+		if (c < n) {
+			c <<= 1;
+		}
+		stripes = (Chain[]) java.lang.reflect.Array.newInstance(Chain.class, c);
+		for (int i = 0; i < c; i++) {
+			stripes[i] = new Chain();
+		}
+	}
+
+	/**
+	 * @return The stripe the calling thread appends to.
+	 */
+	private Chain stripe() {
+		long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+		return stripes[(int) (h >>> 32) & (stripes.length - 1)];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(T o) {
+		Chain s = stripe();
+		synchronized (s) {
+			s.add(o);
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#offer(java.lang.Object)
+	 */
+	@Override
+	public boolean offer(T e) {
+		return add(e);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#offerAll(java.util.Collection)
+	 */
+	@Override
+	public boolean offerAll(Collection<? extends T> c) {
+		Chain s = stripe();
+		synchronized (s) {
+			int n = s.size();
+			for (T o : c) {
+				s.add(o);
+			}
+			return s.size() != n;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#addAll(java.util.Collection)
+	 */
+	@Override
+	public boolean addAll(Collection<? extends T> c) {
+		return offerAll(c);
+	}
+
+	/**
+	 * Splice the elements appended to every stripe onto the tail of the list.
+	 */
+	public synchronized void flush() {
+		for (Chain s : stripes) {
+			synchronized (s) {
+				splice(s);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#size()
+	 */
+	@Override
+	public synchronized int size() {
+		flush();
+		return super.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#isEmpty()
+	 */
+	@Override
+	public synchronized boolean isEmpty() {
+		flush();
+		return super.isEmpty();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#contains(java.lang.Object)
+	 */
+	@Override
+	public synchronized boolean contains(Object o) {
+		flush();
+		return super.contains(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#iterator()
+	 */
+	@Override
+	public synchronized Iterator<T> iterator() {
+		flush();
+		return super.iterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#listIterator()
+	 */
+	@Override
+	public synchronized ListIterator<T> listIterator() {
+		flush();
+		return super.listIterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#listIterator(int)
+	 */
+	@Override
+	public synchronized ListIterator<T> listIterator(int index) {
+		flush();
+		return super.listIterator(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#stableIterator()
+	 */
+	@Override
+	public synchronized Iterator<T> stableIterator() {
+		flush();
+		return super.stableIterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#addAndGetHandle(java.lang.Object)
+	 */
+	@Override
+	public synchronized Handle<T> addAndGetHandle(T o) {
+		flush();
+		return super.addAndGetHandle(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#insertBefore(DLList.Handle, java.lang.Object)
+	 */
+	@Override
+	public synchronized Handle<T> insertBefore(Handle<T> h, T o) {
+		flush();
+		return super.insertBefore(h, o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#insertAfter(DLList.Handle, java.lang.Object)
+	 */
+	@Override
+	public synchronized Handle<T> insertAfter(Handle<T> h, T o) {
+		flush();
+		return super.insertAfter(h, o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#remove(DLList.Handle)
+	 */
+	@Override
+	public synchronized T remove(Handle<T> h) {
+		flush();
+		return super.remove(h);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#moveToFront(DLList.Handle)
+	 */
+	@Override
+	public synchronized void moveToFront(Handle<T> h) {
+		flush();
+		super.moveToFront(h);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#moveToBack(DLList.Handle)
+	 */
+	@Override
+	public synchronized void moveToBack(Handle<T> h) {
+		flush();
+		super.moveToBack(h);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#firstHandle()
+	 */
+	@Override
+	public synchronized Handle<T> firstHandle() {
+		flush();
+		return super.firstHandle();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#lastHandle()
+	 */
+	@Override
+	public synchronized Handle<T> lastHandle() {
+		flush();
+		return super.lastHandle();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#defragment()
+	 */
+	@Override
+	public synchronized void defragment() {
+		flush();
+		super.defragment();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#setAutoDefragment(double)
+	 */
+	@Override
+	public synchronized void setAutoDefragment(double factor) {
+		flush();
+		super.setAutoDefragment(factor);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#toArray()
+	 */
+	@Override
+	public synchronized T[] toArray() {
+		flush();
+		return super.toArray();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#toArray(java.lang.Object[])
+	 */
+	@Override
+	public synchronized <E> E[] toArray(E[] a) {
+		flush();
+		return super.toArray(a);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#remove(java.lang.Object)
+	 */
+	@Override
+	public synchronized boolean remove(Object o) {
+		flush();
+		return super.remove(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#containsAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean containsAll(Collection<?> c) {
+		flush();
+		return super.containsAll(c);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#addAll(int, java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean addAll(int index, Collection<? extends T> c) {
+		flush();
+		return super.addAll(index, c);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#removeAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean removeAll(Collection<?> c) {
+		flush();
+		return super.removeAll(c);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#retainAll(java.util.Collection)
+	 */
+	@Override
+	public synchronized boolean retainAll(Collection<?> c) {
+		flush();
+		return super.retainAll(c);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#clear()
+	 */
+	@Override
+	public synchronized void clear() {
+		flush();
+		super.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#get(int)
+	 */
+	@Override
+	public synchronized T get(int index) {
+		flush();
+		return super.get(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#set(int, java.lang.Object)
+	 */
+	@Override
+	public synchronized T set(int index, T element) {
+		flush();
+		return super.set(index, element);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#add(int, java.lang.Object)
+	 */
+	@Override
+	public synchronized void add(int index, T element) {
+		flush();
+		super.add(index, element);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#remove(int)
+	 */
+	@Override
+	public synchronized T remove(int index) {
+		flush();
+		return super.remove(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#indexOf(java.lang.Object)
+	 */
+	@Override
+	public synchronized int indexOf(Object o) {
+		flush();
+		return super.indexOf(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#lastIndexOf(java.lang.Object)
+	 */
+	@Override
+	public synchronized int lastIndexOf(Object o) {
+		flush();
+		return super.lastIndexOf(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelIndexOf(java.lang.Object)
+	 */
+	@Override
+	public synchronized int parallelIndexOf(Object o) {
+		flush();
+		return super.parallelIndexOf(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelLastIndexOf(java.lang.Object)
+	 */
+	@Override
+	public synchronized int parallelLastIndexOf(Object o) {
+		flush();
+		return super.parallelLastIndexOf(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelContains(java.lang.Object)
+	 */
+	@Override
+	public synchronized boolean parallelContains(Object o) {
+		flush();
+		return super.parallelContains(o);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#subList(int, int)
+	 */
+	@Override
+	public synchronized List<T> subList(int fromIndex, int toIndex) {
+		flush();
+		return super.subList(fromIndex, toIndex);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#remove()
+	 */
+	@Override
+	public synchronized T remove() {
+		flush();
+		return super.remove();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#poll()
+	 */
+	@Override
+	public synchronized T poll() {
+		flush();
+		return super.poll();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#element()
+	 */
+	@Override
+	public synchronized T element() {
+		flush();
+		return super.element();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Queue#peek()
+	 */
+	@Override
+	public synchronized T peek() {
+		flush();
+		return super.peek();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#drainTo(java.util.Collection, int)
+	 */
+	@Override
+	public synchronized int drainTo(Collection<? super T> c, int max) {
+		flush();
+		return super.drainTo(c, max);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#pollBatch(int)
+	 */
+	@Override
+	public synchronized List<T> pollBatch(int n) {
+		flush();
+		return super.pollBatch(n);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Iterable#forEach(java.util.function.Consumer)
+	 */
+	@Override
+	public synchronized void forEach(Consumer<? super T> action) {
+		flush();
+		super.forEach(action);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.Collection#removeIf(java.util.function.Predicate)
+	 */
+	@Override
+	public synchronized boolean removeIf(Predicate<? super T> filter) {
+		flush();
+		return super.removeIf(filter);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#replaceAll(java.util.function.UnaryOperator)
+	 */
+	@Override
+	public synchronized void replaceAll(UnaryOperator<T> operator) {
+		flush();
+		super.replaceAll(operator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelForEach(java.util.function.Consumer)
+	 */
+	@Override
+	public synchronized void parallelForEach(Consumer<? super T> action) {
+		flush();
+		super.parallelForEach(action);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelReplaceAll(java.util.function.UnaryOperator)
+	 */
+	@Override
+	public synchronized void parallelReplaceAll(UnaryOperator<T> operator) {
+		flush();
+		super.parallelReplaceAll(operator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#parallelRemoveIf(java.util.function.Predicate)
+	 */
+	@Override
+	public synchronized boolean parallelRemoveIf(Predicate<? super T> filter) {
+		flush();
+		return super.parallelRemoveIf(filter);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.List#sort(java.util.Comparator)
+	 */
+	@Override
+	public synchronized void sort(Comparator<? super T> c) {
+		flush();
+		super.sort(c);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#clone()
+	 */
+	@Override
+	public synchronized DLList<T> clone() {
+		flush();
+		return super.clone();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public synchronized int hashCode() {
+		flush();
+		return super.hashCode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public synchronized boolean equals(Object obj) {
+		flush();
+		return super.equals(obj);
+	}
+}
@@ -0,0 +1,64 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+public class StripedDLListTestCase {
+
+	@Test
+	public void testSingleThread() {
+		StripedDLList<Integer> list = new StripedDLList<>(4);
+		for (int i = 0; i < 10; i++) {
+			list.add(i);
+		}
+		list.offerAll(Arrays.asList(10, 11));
+		assertEquals(12, list.size());
+		assertEquals(5, (int) list.get(5));
+		assertEquals(0, (int) list.poll());
+		list.add(12);
+		assertArrayEquals(new Integer[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 }, list.toArray());
+	}
+
+	@Test
+	public void testConcurrentAppendsKeepPerThreadOrder() throws InterruptedException {
+		final int threads = 8, n = 50000;
+		StripedDLList<int[]> list = new StripedDLList<>(4);
+		Thread[] ts = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int id = t;
+			ts[t] = new Thread(() -> {
+				for (int i = 0; i < n; i++) {
+					list.add(new int[] { id, i });
+				}
+			});
+			ts[t].start();
+		}
+		int reads = 0;
+		while (reads < 100) {
+			synchronized (list) {
+				int[] last = new int[threads];
+				Arrays.fill(last, -1);
+				for (Iterator<int[]> it = list.iterator(); it.hasNext();) {
+					int[] e = it.next();
+					assertTrue(e[1] > last[e[0]]);
+					last[e[0]] = e[1];
+				}
+			}
+			reads++;
+		}
+		for (Thread t : ts) {
+			t.join();
+		}
+		assertEquals(threads * n, list.size());
+		int[] last = new int[threads];
+		Arrays.fill(last, -1);
+		for (int[] e : list) {
+			assertEquals(last[e[0]] + 1, e[1]);
+			last[e[0]] = e[1];
+		}
+	}
+}
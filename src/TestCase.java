@@ -11,6 +11,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -502,4 +503,386 @@ public class TestCase {
 		l.add(1);
 		assertFalse(l.equals(list));
 	}
+
+	@Test
+	public void testItRemoveKeepsPosition() {
+		for (int i = 0; i < 10; i++) {
+			test.add(i);
+			list.add(i);
+		}
+		test.removeIf(x -> x % 2 == 0);
+		list.removeIf(x -> x % 2 == 0);
+		assertArrayEquals(test.toArray(), list.toArray());
+
+		ListIterator<Integer> it = test.listIterator(test.size());
+		ListIterator<Integer> ti = list.listIterator(list.size());
+		it.previous();
+		ti.previous();
+		it.remove();
+		ti.remove();
+		assertEquals(it.nextIndex(), ti.nextIndex());
+		assertEquals(it.hasNext(), ti.hasNext());
+		assertEquals(it.previous(), ti.previous());
+		assertArrayEquals(test.toArray(), list.toArray());
+	}
+
+	@Test
+	public void testItAddAdvancesIndex() {
+		ListIterator<Integer> it = test.listIterator();
+		ListIterator<Integer> ti = list.listIterator();
+		it.add(1);
+		ti.add(1);
+		assertEquals(it.nextIndex(), ti.nextIndex());
+		assertEquals(it.hasNext(), ti.hasNext());
+		assertEquals(it.hasPrevious(), ti.hasPrevious());
+	}
+
+	@Test
+	public void testDrainTo() {
+		for (int i = 0; i < 20; i++) {
+			test.add(i);
+			list.add(i);
+		}
+		List<Integer> a = new ArrayList<>();
+		assertEquals(5, list.drainTo(a, 5));
+		for (int i = 0; i < 5; i++) {
+			assertEquals(test.poll(), a.get(i));
+		}
+		assertArrayEquals(test.toArray(), list.toArray());
+		assertEquals(test.peek(), list.peek());
+
+		assertEquals(test.subList(0, 3), list.pollBatch(3));
+		test.subList(0, 3).clear();
+		assertEquals(test.size(), list.size());
+
+		a.clear();
+		assertEquals(12, list.drainTo(a));
+		assertEquals(test, a);
+		assertTrue(list.isEmpty());
+		assertEquals(null, list.peek());
+		assertTrue(list.pollBatch(10).isEmpty());
+		list.add(1);
+		assertArrayEquals(new Integer[] { 1 }, list.toArray());
+	}
+
+	@Test
+	public void testDrainToFailingCollection() {
+		for (int i = 0; i < 10; i++) {
+			list.add(i);
+		}
+		DLList.Handle<Integer> h = list.lastHandle();
+		Iterator<Integer> stable = list.stableIterator();
+		List<Integer> a = new ArrayList<Integer>() {
+			@Override
+			public boolean add(Integer e) {
+				if (size() == 4) {
+					throw new IllegalStateException("Full");
+				}
+				return super.add(e);
+			}
+		};
+		try {
+			list.drainTo(a, 8);
+			assertTrue(false);
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		assertEquals(List.of(0, 1, 2, 3), a);
+		assertEquals(6, list.size());
+		assertArrayEquals(new Integer[] { 4, 5, 6, 7, 8, 9 }, list.toArray());
+		assertEquals(Integer.valueOf(4), stable.next());
+		assertEquals(Integer.valueOf(9), list.remove(h));
+		assertEquals(Integer.valueOf(4), list.remove(0));
+		assertEquals(4, list.drainTo(new ArrayList<>()));
+		assertTrue(list.isEmpty());
+	}
+
+	@Test
+	public void testOfferAll() {
+		list.add(-1);
+		test.add(-1);
+		List<Integer> a = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			a.add(i);
+		}
+		assertTrue(list.offerAll(a));
+		test.addAll(a);
+		assertFalse(list.offerAll(new ArrayList<Integer>()));
+		assertArrayEquals(test.toArray(), list.toArray());
+		assertEquals(test.size(), list.size());
+
+		ListIterator<Integer> it = test.listIterator(test.size());
+		ListIterator<Integer> ti = list.listIterator(list.size());
+		while (it.hasPrevious()) {
+			assertEquals(it.previous(), ti.previous());
+		}
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void testItAddInvalidatesOtherIterators() {
+		list.add(1);
+		ListIterator<Integer> a = list.listIterator();
+		Iterator<Integer> b = list.iterator();
+		a.add(0);
+		b.next();
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void testItRemoveInvalidatesOtherIterators() {
+		list.add(1);
+		list.add(2);
+		Iterator<Integer> a = list.iterator();
+		Iterator<Integer> b = list.iterator();
+		a.next();
+		a.remove();
+		b.next();
+	}
+
+	@Test
+	public void testStableIteratorSurvivesModification() {
+		for (int i = 0; i < 10; i++) {
+			list.add(i);
+		}
+		Iterator<Integer> it = list.stableIterator();
+		List<Integer> seen = new ArrayList<>();
+		while (it.hasNext()) {
+			int x = it.next();
+			seen.add(x);
+			if (x == 2) {
+				list.remove(Integer.valueOf(3)); // Ahead of the iterator
+				list.remove(0); // Behind the iterator
+				list.add(10); // Appended
+			}
+			if (x == 5) {
+				list.remove(Integer.valueOf(5)); // The iterator's own position
+				list.remove(Integer.valueOf(6));
+			}
+			if (x == 8) {
+				it.remove();
+			}
+		}
+		assertEquals(Arrays.asList(0, 1, 2, 4, 5, 7, 8, 9, 10), seen);
+		assertArrayEquals(new Integer[] { 1, 2, 4, 7, 9, 10 }, list.toArray());
+
+		it = list.stableIterator();
+		it.next();
+		list.clear();
+		list.add(20);
+		assertTrue(it.hasNext());
+		assertEquals(20, (int) it.next());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testHandles() {
+		DLList.Handle<Integer> a = list.addAndGetHandle(1);
+		DLList.Handle<Integer> b = list.addAndGetHandle(1);
+		DLList.Handle<Integer> c = list.insertAfter(a, 2);
+		list.insertBefore(a, 0);
+		assertArrayEquals(new Integer[] { 0, 1, 2, 1 }, list.toArray());
+		assertEquals(2, (int) a.next().get());
+		assertEquals(0, (int) a.prev().get());
+		assertEquals(null, b.next());
+		assertEquals(null, list.firstHandle().prev());
+
+		assertEquals(1, (int) list.remove(b)); // The second duplicate
+		assertFalse(b.isLinked());
+		assertEquals(null, b.next());
+		assertArrayEquals(new Integer[] { 0, 1, 2 }, list.toArray());
+
+		list.moveToFront(c);
+		assertArrayEquals(new Integer[] { 2, 0, 1 }, list.toArray());
+		list.moveToBack(c);
+		list.moveToBack(c);
+		assertArrayEquals(new Integer[] { 0, 1, 2 }, list.toArray());
+		assertTrue(c == list.lastHandle());
+		assertTrue(c.isLinked());
+		assertEquals(3, list.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRemovedHandleRejected() {
+		DLList.Handle<Integer> a = list.addAndGetHandle(1);
+		list.remove(Integer.valueOf(1));
+		list.add(1);
+		list.moveToFront(a);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testClearedHandleRejected() {
+		DLList.Handle<Integer> a = list.addAndGetHandle(1);
+		list.clear();
+		list.insertAfter(a, 2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testForeignHandleRejected() {
+		DLList<Integer> other = new DLList<>();
+		list.remove(other.addAndGetHandle(1));
+	}
+
+	@Test
+	public void testDefragment() {
+		for (int i = 0; i < 10; i++) {
+			list.add(i);
+			test.add(i);
+		}
+		list.remove(3);
+		test.remove(3);
+		list.add(5, 42);
+		test.add(5, 42);
+		Iterator<Integer> stable = list.stableIterator();
+		stable.next();
+		stable.next();
+		Iterator<Integer> it = list.iterator();
+		list.defragment();
+		assertArrayEquals(test.toArray(), list.toArray());
+		assertEquals(test.size(), list.size());
+		List<Integer> rest = new ArrayList<>();
+		stable.forEachRemaining(rest::add);
+		assertEquals(test.subList(2, test.size()), rest);
+		try {
+			it.next();
+			assertTrue(false);
+		} catch (ConcurrentModificationException e) {
+			// Expected
+		}
+		list.add(10);
+		test.add(10);
+		assertEquals(test.getLast(), list.get(list.size() - 1));
+		assertEquals(test.getFirst(), list.peek());
+	}
+
+	@Test
+	public void testAutoDefragment() {
+		for (int i = 0; i < 100; i++) {
+			list.add(i);
+		}
+		list.setAutoDefragment(1);
+		DLListMetrics m = list.enableMetrics();
+		for (int i = 0; i < 50; i++) {
+			list.add(50, list.remove(50));
+		}
+		list.add(100);
+		assertEquals(51, m.getAllocations()); // Churn of 100 is not enough
+		list.remove(50);
+		list.remove(50);
+		list.add(101);
+		assertEquals(52 + 100, m.getAllocations());
+		assertEquals(100, list.size());
+		assertEquals(Integer.valueOf(101), list.get(99));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDefragmentWithHandles() {
+		list.addAndGetHandle(1);
+		list.defragment();
+	}
+
+	@Test
+	public void testParallelSearch() {
+		int n = 300000;
+		for (int i = 0; i < n; i++) {
+			list.add(i % 1000 == 999 ? null : i % 100000);
+		}
+		for (Integer x : new Integer[] { 0, 5, 99998, 12345, null, -1 }) {
+			assertEquals(list.indexOf(x), list.parallelIndexOf(x));
+			assertEquals(list.lastIndexOf(x), list.parallelLastIndexOf(x));
+			assertEquals(list.contains(x), list.parallelContains(x));
+		}
+		assertEquals(n - 1, list.parallelLastIndexOf(null));
+		list.remove(0);
+		assertEquals(99999, list.parallelIndexOf(0)); // Checkpoints retaken
+		list.add(5);
+		assertEquals(n - 1, list.parallelLastIndexOf(5));
+	}
+
+	@Test
+	public void testParallelSearchShortList() {
+		assertEquals(-1, list.parallelIndexOf(1));
+		assertEquals(-1, list.parallelLastIndexOf(null));
+		for (int i = 0; i < 10; i++) {
+			list.add(i % 3);
+		}
+		assertEquals(1, list.parallelIndexOf(1));
+		assertEquals(7, list.parallelLastIndexOf(1));
+		assertFalse(list.parallelContains(3));
+	}
+
+	@Test
+	public void testParallelRemoveIf() {
+		for (int i = 0; i < 300000; i++) {
+			list.add(i);
+			test.add(i);
+		}
+		Iterator<Integer> stable = list.stableIterator();
+		for (int i = 0; i < 10; i++) {
+			stable.next();
+		}
+		Iterator<Integer> it = list.iterator();
+		assertTrue(list.parallelRemoveIf(x -> x % 3 != 0 || (x > 100000 && x < 200000)));
+		test.removeIf(x -> x % 3 != 0 || (x > 100000 && x < 200000));
+		assertArrayEquals(test.toArray(), list.toArray());
+		assertEquals(test.size(), list.size());
+		assertEquals(Integer.valueOf(200001), list.get(33334));
+		assertEquals(test.get(test.size() - 1), list.get(list.size() - 1));
+		assertEquals(Integer.valueOf(12), stable.next());
+		try {
+			it.next();
+			assertTrue(false);
+		} catch (ConcurrentModificationException e) {
+			// Expected
+		}
+		assertFalse(list.parallelRemoveIf(x -> x < 0));
+		assertTrue(list.parallelRemoveIf(x -> true));
+		assertTrue(list.isEmpty());
+		list.add(1);
+		assertEquals(Integer.valueOf(1), list.peek());
+	}
+
+	@Test
+	public void testParallelRemoveIfFailureLeavesListUnchanged() {
+		for (int i = 0; i < 100000; i++) {
+			list.add(i);
+		}
+		try {
+			list.parallelRemoveIf(x -> {
+				if (x == 99999) {
+					throw new IllegalStateException();
+				}
+				return x % 2 == 0;
+			});
+			assertTrue(false);
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		assertEquals(100000, list.size());
+		assertEquals(Integer.valueOf(0), list.peek());
+		assertEquals(49999, list.indexOf(49999));
+	}
+
+	@Test
+	public void testParallelReplaceAllAndForEach() {
+		for (int i = 0; i < 200000; i++) {
+			list.add(i);
+		}
+		list.parallelReplaceAll(x -> x * 2);
+		AtomicLong sum = new AtomicLong();
+		list.parallelForEach(x -> sum.addAndGet(x));
+		assertEquals(2L * 199999 * 200000 / 2, sum.get());
+		assertEquals(Integer.valueOf(399998), list.get(199999));
+
+		DLList<Integer> small = new DLList<>(Arrays.asList(1, 2, 3));
+		small.parallelReplaceAll(x -> -x);
+		assertArrayEquals(new Integer[] { -1, -2, -3 }, small.toArray());
+		new DLList<Integer>().parallelForEach(x -> assertTrue(false));
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void testParallelForEachIsFailFast() {
+		for (int i = 0; i < 10; i++) {
+			list.add(i);
+		}
+		list.parallelForEach(x -> list.add(x));
+	}
 }
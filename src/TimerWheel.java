@@ -0,0 +1,314 @@
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel, holding tasks which are to be run once a
+ * deadline has passed.
+ *
+ * Time is divided into ticks of a fixed length. The wheel has several levels
+ * of 64 buckets each; a bucket on the lowest level holds the tasks due in one
+ * tick, and a bucket on each higher level covers 64 times as many ticks as one
+ * on the level below. Each bucket is a {@code DLList}, and every task keeps the
+ * handle of its node, so scheduling and cancelling take constant time. When
+ * the wheel is advanced it only visits the buckets which fall due, moving the
+ * tasks of a higher level bucket down to the lower levels as its time comes.
+ *
+ * Times are plain {@code long} values in whatever unit the caller chooses,
+ * such as {@code System.nanoTime()}, provided the tick length is given in the
+ * same unit. The wheel is not thread-safe.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of task being scheduled.
+ */
+public class TimerWheel<T> {
+
+	/**
+	 * Number of bits of the tick count handled by each level.
+	 */
+	private static final int BITS = 6;
+
+	/**
+	 * Number of buckets in each level.
+	 */
+	private static final int BUCKETS = 1 << BITS;
+
+	/**
+	 * Number of levels. Tasks due further ahead than the levels cover are put
+	 * in the last bucket of the top level, and placed again when it is
+	 * reached.
+	 */
+	private static final int LEVELS = 6;
+
+	/**
+	 * Number of ticks covered by all of the levels together.
+	 */
+	private static final long SPAN = 1L << (BITS * LEVELS);
+
+	/**
+	 * A scheduled task, which can be used to cancel it.
+	 *
+	 * @param <T>
+	 *            Type of task.
+	 */
+	public static final class Timeout<T> {
+
+		/**
+		 * The task to run.
+		 */
+		private final T task;
+
+		/**
+		 * The deadline as given when scheduling.
+		 */
+		private final long deadline;
+
+		/**
+		 * The tick at which the task falls due.
+		 */
+		private final long tick;
+
+		/**
+		 * The bucket holding the task, or null once it has expired or been
+		 * cancelled.
+		 */
+		private DLList<Timeout<T>> bucket;
+
+		/**
+		 * Handle of the task's node in its bucket.
+		 */
+		private DLList.Handle<Timeout<T>> handle;
+
+		/**
+		 * The level of the bucket holding the task.
+		 */
+		private int level;
+
+		/**
+		 * Initialise a timeout.
+		 *
+		 * @param task
+		 *            The task to run.
+		 * @param deadline
+		 *            The deadline as given when scheduling.
+		 * @param tick
+		 *            The tick at which the task falls due.
+		 */
+		private Timeout(T task, long deadline, long tick) {
+			this.task = task;
+			this.deadline = deadline;
+			this.tick = tick;
+		}
+
+		/**
+		 * @return The task to run.
+		 */
+		public T getTask() {
+			return task;
+		}
+
+		/**
+		 * @return The deadline of the task.
+		 */
+		public long getDeadline() {
+			return deadline;
+		}
+
+		/**
+		 * @return True if the task has neither expired nor been cancelled.
+		 */
+		public boolean isPending() {
+			return bucket != null;
+		}
+	}
+
+	/**
+	 * The buckets of each level.
+	 */
+	private final DLList<Timeout<T>>[][] wheels;
+
+	/**
+	 * Length of a tick.
+	 */
+	private final long tickLength;
+
+	/**
+	 * The last tick whose tasks have been run.
+	 */
+	private long current;
+
+	/**
+	 * Number of pending tasks.
+	 */
+	private int size = 0;
+
+	/**
+	 * Number of pending tasks in each level, used to skip over ticks which
+	 * have nothing to do.
+	 */
+	private final int[] counts = new int[LEVELS];
+
+	/**
+	 * Create a wheel starting at the given time.
+	 *
+	 * @param tickLength
+	 *            Length of a tick. Deadlines are rounded up to a whole tick.
+	 * @param start
+	 *            The current time.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public TimerWheel(long tickLength, long start) {
+		if (tickLength <= 0) {
+			throw new IllegalArgumentException("Tick length must be positive");
+		}
+		this.tickLength = tickLength;
+		current = Math.floorDiv(start, tickLength);
+		wheels = new DLList[LEVELS][BUCKETS];
+		for (DLList<Timeout<T>>[] level : wheels) {
+			for (int i = 0; i < BUCKETS; i++) {
+				level[i] = new DLList<>();
+			}
+		}
+	}
+
+	/**
+	 * Schedule a task to be run once the given time has been reached. A
+	 * deadline which has already passed is run on the next tick.
+	 *
+	 * @param task
+	 *            The task to run.
+	 * @param deadline
+	 *            The time at which it is due.
+	 * @return A timeout which may be used to cancel the task.
+	 */
+	public Timeout<T> schedule(T task, long deadline) {
+		Objects.requireNonNull(task);
+		long tick = -Math.floorDiv(-deadline, tickLength); // Round up
+		Timeout<T> t = new Timeout<>(task, deadline, Math.max(tick, current + 1));
+		place(t);
+		size++;
+		return t;
+	}
+
+	/**
+	 * Cancel a scheduled task.
+	 *
+	 * @param t
+	 *            The timeout returned when the task was scheduled.
+	 * @return True if the task was pending, false if it had already expired
+	 *         or been cancelled.
+	 */
+	public boolean cancel(Timeout<T> t) {
+		if (t.bucket == null) {
+			return false;
+		}
+		t.bucket.remove(t.handle);
+		counts[t.level]--;
+		t.bucket = null;
+		t.handle = null;
+		size--;
+		return true;
+	}
+
+	/**
+	 * Advance the wheel to the given time, running every task whose deadline
+	 * has been reached, in order of their ticks. Runs of ticks in which no
+	 * bucket falls due are skipped rather than visited one by one.
+	 *
+	 * @param now
+	 *            The current time.
+	 * @param expired
+	 *            Receives the tasks which are due.
+	 * @return The number of tasks run.
+	 */
+	public int advance(long now, Consumer<? super T> expired) {
+		Objects.requireNonNull(expired);
+		long target = Math.floorDiv(now, tickLength);
+		int n = 0;
+		while (current < target) {
+			int level = 0;
+			while (level < LEVELS && counts[level] == 0) {
+				level++;
+			}
+			if (level == LEVELS) {
+				current = target; // Nothing pending
+				break;
+			}
+			if (level > 0) {
+				// Nothing can fall due before the next bucket of this level
+				long next = ((current >>> (BITS * level)) + 1) << (BITS * level);
+				current = Math.min(target, next - 1);
+				if (current == target) {
+					break;
+				}
+			}
+			current++;
+			cascade(1);
+			DLList<Timeout<T>> bucket = wheels[0][(int) current & (BUCKETS - 1)];
+			for (Timeout<T> t; (t = bucket.poll()) != null; n++) {
+				counts[0]--;
+				t.bucket = null;
+				t.handle = null;
+				size--;
+				expired.accept(t.task);
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * If the current tick is at the start of a bucket of the given level, move
+	 * the tasks of that bucket down to the lower levels, first doing the same
+	 * for the level above if the tick also starts one of its buckets.
+	 *
+	 * @param level
+	 *            The level to check.
+	 */
+	private void cascade(int level) {
+		if (level == LEVELS || (current & ((1L << (BITS * level)) - 1)) != 0) {
+			return;
+		}
+		cascade(level + 1);
+		DLList<Timeout<T>> bucket = wheels[level][(int) (current >>> (BITS * level)) & (BUCKETS - 1)];
+		for (Timeout<T> t; (t = bucket.poll()) != null;) {
+			counts[level]--;
+			place(t);
+		}
+	}
+
+	/**
+	 * Put a task in the bucket for its tick, on the lowest level which
+	 * reaches that far.
+	 *
+	 * @param t
+	 *            The task.
+	 */
+	private void place(Timeout<T> t) {
+		long tick = Math.max(t.tick, current);
+		long delta = tick - current;
+		if (delta >= SPAN) {
+			tick = current + SPAN - 1;
+			delta = SPAN - 1;
+		}
+		int level = delta == 0 ? 0 : (63 - Long.numberOfLeadingZeros(delta)) / BITS;
+		t.bucket = wheels[level][(int) (tick >>> (BITS * level)) & (BUCKETS - 1)];
+		t.handle = t.bucket.addAndGetHandle(t);
+		t.level = level;
+		counts[level]++;
+	}
+
+	/**
+	 * @return The number of pending tasks.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return True if there are no pending tasks.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+}
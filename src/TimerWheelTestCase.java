@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimerWheelTestCase {
+
+	TimerWheel<Long> wheel;
+	List<Long> fired;
+
+	@Before
+	public void setup() {
+		wheel = new TimerWheel<>(10, 0);
+		fired = new ArrayList<>();
+	}
+
+	@Test
+	public void testFiresAtDeadline() {
+		wheel.schedule(25L, 25);
+		wheel.schedule(5L, 5);
+		wheel.schedule(-3L, -3);
+		assertEquals(0, wheel.advance(9, fired::add));
+		assertEquals(2, wheel.advance(10, fired::add)); // Past deadline runs on next tick
+		assertEquals(0, wheel.advance(29, fired::add));
+		assertEquals(1, wheel.size());
+		assertEquals(1, wheel.advance(30, fired::add));
+		assertTrue(wheel.isEmpty());
+		wheel.schedule(10L << 40, 10L << 40); // Beyond the span of the levels
+		assertEquals(0, wheel.advance((10L << 40) - 1, fired::add));
+		assertEquals(1, wheel.advance(10L << 40, fired::add));
+		assertEquals(4, fired.size());
+	}
+
+	@Test
+	public void testCancel() {
+		TimerWheel.Timeout<Long> a = wheel.schedule(100L, 100);
+		TimerWheel.Timeout<Long> b = wheel.schedule(100_000L, 100_000);
+		assertTrue(wheel.cancel(a));
+		assertFalse(wheel.cancel(a));
+		assertFalse(a.isPending());
+		wheel.advance(1000, fired::add);
+		assertTrue(fired.isEmpty());
+		assertTrue(b.isPending());
+		wheel.advance(100_000, fired::add);
+		assertFalse(b.isPending());
+		assertFalse(wheel.cancel(b));
+		assertEquals(1, fired.size());
+	}
+
+	@Test
+	public void testMatchesSortedDeadlines() {
+		Random r = new Random(42);
+		long now = 0;
+		List<TimerWheel.Timeout<Long>> pending = new ArrayList<>();
+		for (int step = 0; step < 2000; step++) {
+			for (int i = 0; i < 5; i++) {
+				long d = now + (long) Math.pow(2, r.nextInt(40)) + r.nextInt(100);
+				pending.add(wheel.schedule(d, d));
+			}
+			if (r.nextBoolean() && !pending.isEmpty()) {
+				wheel.cancel(pending.remove(r.nextInt(pending.size())));
+			}
+			now += r.nextInt(1 << (r.nextInt(24) + 1));
+			fired.clear();
+			wheel.advance(now, fired::add);
+			long last = Long.MIN_VALUE;
+			for (long d : fired) {
+				assertTrue(d <= now);
+				assertTrue((d + 9) / 10 >= (last + 9) / 10); // In tick order
+				last = d;
+			}
+			int before = pending.size();
+			pending.removeIf(t -> !t.isPending());
+			assertEquals(fired.size(), before - pending.size());
+			for (TimerWheel.Timeout<Long> t : pending) {
+				assertTrue((t.getDeadline() + 9) / 10 > now / 10); // Tick not reached
+			}
+			assertEquals(pending.size(), wheel.size());
+		}
+	}
+}
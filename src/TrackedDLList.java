@@ -0,0 +1,527 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@code DLList} which reports every change made to it, including those
+ * made through its iterators, as a sequence of index based events. Each event
+ * is reported after the change has been made, with indices relative to the
+ * list at that moment, so replaying the events in order on a copy of the
+ * original list reproduces the current one.
+ *
+ * Subclasses implement the {@code inserted}, {@code removed},
+ * {@code updated} and {@code cleared} hooks to act on the events.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of object to be stored.
+ */
+public abstract class TrackedDLList<T> extends DLList<T> {
+
+	/**
+	 * Generated {@code serialVersionUID}
+	 */
+	private static final long serialVersionUID = -1769468412733542180L;
+
+	/**
+	 * Called after an element has been inserted.
+	 *
+	 * @param index
+	 *            Index of the new element.
+	 * @param element
+	 *            The element inserted.
+	 */
+	protected abstract void inserted(int index, T element);
+
+	/**
+	 * Called after an element has been removed.
+	 *
+	 * @param index
+	 *            Index the element was removed from.
+	 * @param element
+	 *            The element removed.
+	 */
+	protected abstract void removed(int index, T element);
+
+	/**
+	 * Called after an element has been replaced.
+	 *
+	 * @param index
+	 *            Index of the element.
+	 * @param element
+	 *            The new element.
+	 */
+	protected abstract void updated(int index, T element);
+
+	/**
+	 * Called after the list has been cleared.
+	 *
+	 * @param size
+	 *            The number of elements the list held before being cleared.
+	 */
+	protected abstract void cleared(int size);
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(T o) {
+		super.add(o);
+		inserted(size() - 1, o);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#add(int, java.lang.Object)
+	 */
+	@Override
+	public void add(int index, T element) {
+		super.add(index, element);
+		inserted(index, element);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#addAll(int, java.util.Collection)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean addAll(int index, Collection<? extends T> c) {
+		Object[] a = c.toArray();
+		boolean r = super.addAll(index, Arrays.asList((T[]) a));
+		for (int i = 0; i < a.length; i++) {
+			inserted(index + i, (T) a[i]);
+		}
+		return r;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#offerAll(java.util.Collection)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean offerAll(Collection<? extends T> c) {
+		Object[] a = c.toArray();
+		int s = size();
+		boolean r = super.offerAll(Arrays.asList((T[]) a));
+		for (int i = 0; i < a.length; i++) {
+			inserted(s + i, (T) a[i]);
+		}
+		return r;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#drainTo(java.util.Collection, int)
+	 */
+	@Override
+	public int drainTo(Collection<? super T> c, int max) {
+		Objects.requireNonNull(c);
+		if (c == this) {
+			throw new IllegalArgumentException();
+		}
+		List<T> r = new ArrayList<>();
+		int n = super.drainTo(r, max);
+		for (T o : r) {
+			removed(0, o);
+		}
+		c.addAll(r);
+		return n;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#set(int, java.lang.Object)
+	 */
+	@Override
+	public T set(int index, T element) {
+		T old = super.set(index, element);
+		updated(index, element);
+		return old;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#remove(int)
+	 */
+	@Override
+	public T remove(int index) {
+		T o = super.remove(index);
+		removed(index, o);
+		return o;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object o) {
+		int i = indexOf(o);
+		if (i == -1) {
+			return false;
+		}
+		remove(i);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#removeAll(java.util.Collection)
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		Objects.requireNonNull(c);
+		return removeIf(c::contains);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#retainAll(java.util.Collection)
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		Objects.requireNonNull(c);
+		return removeIf(e -> !c.contains(e));
+	}
+
+	/**
+	 * Replace every element, as {@code replaceAll} does. Changes must be
+	 * reported one at a time in order, so this is not done in parallel,
+	 * although the operator must still be thread-safe.
+	 *
+	 * @param operator
+	 *            The operator to apply.
+	 */
+	@Override
+	public void parallelReplaceAll(UnaryOperator<T> operator) {
+		replaceAll(operator);
+	}
+
+	/**
+	 * Remove every element which satisfies a predicate, as {@code removeIf}
+	 * does. Changes must be reported one at a time in order, so this is not
+	 * done in parallel, although the predicate must still be thread-safe.
+	 *
+	 * @param filter
+	 *            The predicate selecting elements to remove.
+	 * @return True if any elements were removed.
+	 */
+	@Override
+	public boolean parallelRemoveIf(Predicate<? super T> filter) {
+		return removeIf(filter);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#clear()
+	 */
+	@Override
+	public void clear() {
+		int s = size();
+		super.clear();
+		cleared(s);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#iterator()
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return listIterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#listIterator()
+	 */
+	@Override
+	public ListIterator<T> listIterator() {
+		return new TrackedIt(super.listIterator());
+	}
+
+	/**
+	 * Return a stable iterator as {@code DLList.stableIterator()} does. Since
+	 * such an iterator does not know the index of its position, it cannot
+	 * report a removal, so its {@code remove()} is not supported.
+	 *
+	 * @return A read-only position-stable iterator over the list.
+	 */
+	@Override
+	public Iterator<T> stableIterator() {
+		Iterator<T> it = super.stableIterator();
+		return new Iterator<T>() {
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			@Override
+			public T next() {
+				return it.next();
+			}
+		};
+	}
+
+	/**
+	 * Find the index of the element referred to by a handle, by counting the
+	 * elements before it. This makes the handle operations of a tracked list
+	 * linear rather than constant time.
+	 *
+	 * @param h
+	 *            The handle.
+	 * @return The index of its element.
+	 */
+	private static int index(Handle<?> h) {
+		int i = 0;
+		for (Handle<?> p = h.prev(); p != null; p = p.prev()) {
+			i++;
+		}
+		return i;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#addAndGetHandle(java.lang.Object)
+	 */
+	@Override
+	public Handle<T> addAndGetHandle(T o) {
+		Handle<T> h = super.addAndGetHandle(o);
+		inserted(size() - 1, o);
+		return h;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#insertBefore(DLList.Handle, java.lang.Object)
+	 */
+	@Override
+	public Handle<T> insertBefore(Handle<T> h, T o) {
+		Handle<T> n = super.insertBefore(h, o);
+		inserted(index(n), o);
+		return n;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#insertAfter(DLList.Handle, java.lang.Object)
+	 */
+	@Override
+	public Handle<T> insertAfter(Handle<T> h, T o) {
+		Handle<T> n = super.insertAfter(h, o);
+		inserted(index(n), o);
+		return n;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see DLList#remove(DLList.Handle)
+	 */
+	@Override
+	public T remove(Handle<T> h) {
+		int i = index(h);
+		T o = super.remove(h);
+		removed(i, o);
+		return o;
+	}
+
+	/**
+	 * Move an element to the front of the list as {@code DLList} does,
+	 * reporting the move as a removal followed by an insertion.
+	 *
+	 * @param h
+	 *            Handle of an element in this list.
+	 */
+	@Override
+	public void moveToFront(Handle<T> h) {
+		int i = index(h);
+		super.moveToFront(h);
+		if (i != 0) {
+			removed(i, h.get());
+			inserted(0, h.get());
+		}
+	}
+
+	/**
+	 * Move an element to the back of the list as {@code DLList} does,
+	 * reporting the move as a removal followed by an insertion.
+	 *
+	 * @param h
+	 *            Handle of an element in this list.
+	 */
+	@Override
+	public void moveToBack(Handle<T> h) {
+		int i = index(h);
+		super.moveToBack(h);
+		int last = size() - 1;
+		if (i != last) {
+			removed(i, h.get());
+			inserted(last, h.get());
+		}
+	}
+
+	/**
+	 * Iterator which reports the mutations made through it, translating them
+	 * into index based events.
+	 */
+	private class TrackedIt implements ListIterator<T> {
+
+		/**
+		 * The iterator of the underlying list.
+		 */
+		private final ListIterator<T> it;
+
+		/**
+		 * Index of the element last returned by {@code next()} or
+		 * {@code previous()}, or -1 if there is none.
+		 */
+		private int last = -1;
+
+		/**
+		 * The element last returned by {@code next()} or {@code previous()}.
+		 */
+		private T lastElem;
+
+		/**
+		 * Wrap the given iterator.
+		 *
+		 * @param it
+		 *            The iterator of the underlying list.
+		 */
+		private TrackedIt(ListIterator<T> it) {
+			this.it = it;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			return it.hasNext();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#next()
+		 */
+		@Override
+		public T next() {
+			lastElem = it.next();
+			last = it.previousIndex();
+			return lastElem;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#hasPrevious()
+		 */
+		@Override
+		public boolean hasPrevious() {
+			return it.hasPrevious();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#previous()
+		 */
+		@Override
+		public T previous() {
+			lastElem = it.previous();
+			last = it.nextIndex();
+			return lastElem;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#nextIndex()
+		 */
+		@Override
+		public int nextIndex() {
+			return it.nextIndex();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#previousIndex()
+		 */
+		@Override
+		public int previousIndex() {
+			return it.previousIndex();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#remove()
+		 */
+		@Override
+		public void remove() {
+			it.remove();
+			removed(last, lastElem);
+			last = -1;
+			lastElem = null;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#set(java.lang.Object)
+		 */
+		@Override
+		public void set(T e) {
+			it.set(e);
+			updated(last, e);
+			last = -1;
+			lastElem = null;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.ListIterator#add(java.lang.Object)
+		 */
+		@Override
+		public void add(T e) {
+			int i = it.nextIndex();
+			it.add(e);
+			inserted(i, e);
+			last = -1;
+			lastElem = null;
+		}
+	}
+}
@@ -0,0 +1,151 @@
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A work-stealing deque for task schedulers, following Chase and Lev's
+ * "Dynamic Circular Work-Stealing Deque".
+ *
+ * Like {@code DLList} it has two ends with different roles. The owning thread
+ * pushes and pops tasks at the bottom (tail) without any compare-and-set,
+ * except when taking the very last task. Other threads steal from the top
+ * (head) by advancing it with a compare-and-set, so thieves only contend with
+ * each other and with the owner over the final task.
+ *
+ * Elements are kept in a circular array which the owner doubles when it is
+ * full. {@code push} and {@code pop} must only ever be called by the owning
+ * thread; {@code steal}, {@code size} and {@code isEmpty} may be called by any
+ * thread.
+ *
+ * @author David Brown
+ *
+ * @param <T>
+ *            Type of task being stored.
+ */
+public class WorkStealingDeque<T> {
+
+	/**
+	 * Initial capacity of the array. Must be a power of two.
+	 */
+	private static final int INITIAL_CAPACITY = 1 << 6;
+
+	/**
+	 * Index of the next element to be stolen. Only ever increases.
+	 */
+	private final AtomicLong top = new AtomicLong();
+
+	/**
+	 * Index one past the last element pushed by the owner.
+	 */
+	private volatile long bottom = 0;
+
+	/**
+	 * The circular array of elements. Its length is always a power of two.
+	 */
+	private volatile AtomicReferenceArray<T> array = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+	/**
+	 * Push an element onto the bottom of the deque. Must only be called by the
+	 * owning thread.
+	 *
+	 * @param e
+	 *            The element to push, must not be null.
+	 */
+	public void push(T e) {
+		Objects.requireNonNull(e);
+		long b = bottom;
+		long t = top.get();
+		AtomicReferenceArray<T> a = array;
+		if (b - t >= a.length() - 1) {
+			a = grow(a, b, t);
+		}
+		a.lazySet((int) b & (a.length() - 1), e);
+		bottom = b + 1;
+	}
+
+	/**
+	 * Replace the array with one twice the size, copying the live elements.
+	 *
+	 * @param a
+	 *            The current array.
+	 * @param b
+	 *            The current bottom.
+	 * @param t
+	 *            The current top.
+	 * @return The new array.
+	 */
+	private AtomicReferenceArray<T> grow(AtomicReferenceArray<T> a, long b, long t) {
+		AtomicReferenceArray<T> n = new AtomicReferenceArray<>(a.length() << 1);
+		for (long i = t; i < b; i++) {
+			n.lazySet((int) i & (n.length() - 1), a.get((int) i & (a.length() - 1)));
+		}
+		array = n;
+		return n;
+	}
+
+	/**
+	 * Pop the most recently pushed element from the bottom of the deque. Must
+	 * only be called by the owning thread.
+	 *
+	 * @return The element, or null if the deque is empty.
+	 */
+	public T pop() {
+		long b = bottom - 1;
+		AtomicReferenceArray<T> a = array;
+		bottom = b; // Volatile write followed by volatile read of top
+		long t = top.get();
+		if (t > b) {
+			bottom = b + 1; // Already empty
+			return null;
+		}
+		int i = (int) b & (a.length() - 1);
+		T e = a.get(i);
+		if (t == b) {
+			// Last element, race any thieves for it
+			if (!top.compareAndSet(t, t + 1)) {
+				e = null;
+			}
+			bottom = b + 1;
+		}
+		if (e != null) {
+			a.lazySet(i, null);
+		}
+		return e;
+	}
+
+	/**
+	 * Steal the least recently pushed element from the top of the deque. May
+	 * be called by any thread.
+	 *
+	 * @return The element, or null if the deque was empty or another thread
+	 *         took the element first.
+	 */
+	public T steal() {
+		long t = top.get();
+		long b = bottom;
+		if (t >= b) {
+			return null;
+		}
+		AtomicReferenceArray<T> a = array;
+		T e = a.get((int) t & (a.length() - 1));
+		if (e == null || !top.compareAndSet(t, t + 1)) {
+			return null;
+		}
+		return e;
+	}
+
+	/**
+	 * @return An estimate of the number of elements in the deque.
+	 */
+	public int size() {
+		long n = bottom - top.get();
+		return n < 0 ? 0 : (int) Math.min(n, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @return True if the deque appeared empty.
+	 */
+	public boolean isEmpty() {
+		return bottom <= top.get();
+	}
+}
@@ -0,0 +1,71 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+public class WorkStealingDequeTestCase {
+
+	@Test
+	public void testOwnerIsLifoThievesAreFifo() {
+		WorkStealingDeque<Integer> d = new WorkStealingDeque<>();
+		assertNull(d.pop());
+		assertNull(d.steal());
+		for (int i = 0; i < 1000; i++) {
+			d.push(i);
+		}
+		assertEquals(1000, d.size());
+		assertEquals(999, (int) d.pop());
+		assertEquals(0, (int) d.steal());
+		assertEquals(1, (int) d.steal());
+		assertEquals(998, (int) d.pop());
+		assertEquals(996, d.size());
+		while (d.pop() != null) {
+		}
+		assertTrue(d.isEmpty());
+		assertNull(d.steal());
+	}
+
+	@Test
+	public void testEveryElementTakenOnce() throws InterruptedException {
+		final int n = 200000;
+		WorkStealingDeque<Integer> d = new WorkStealingDeque<>();
+		AtomicIntegerArray taken = new AtomicIntegerArray(n);
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread[] thieves = new Thread[3];
+		for (int k = 0; k < thieves.length; k++) {
+			thieves[k] = new Thread(() -> {
+				while (running.get() || !d.isEmpty()) {
+					Integer e = d.steal();
+					if (e != null) {
+						taken.incrementAndGet(e);
+					}
+				}
+			});
+			thieves[k].start();
+		}
+		for (int i = 0; i < n; i++) {
+			d.push(i);
+			if (i % 3 == 0) {
+				Integer e = d.pop();
+				if (e != null) {
+					taken.incrementAndGet(e);
+				}
+			}
+		}
+		Integer e;
+		while ((e = d.pop()) != null) {
+			taken.incrementAndGet(e);
+		}
+		running.set(false);
+		for (Thread t : thieves) {
+			t.join();
+		}
+		for (int i = 0; i < n; i++) {
+			assertEquals(1, taken.get(i));
+		}
+	}
+}